@@ -0,0 +1,124 @@
+package com.backend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH json result against a stored baseline run and prints the
+ * change of every score. Arguments: result file, baseline file, tolerated
+ * change in percent, and whether a regression beyond it fails the build.
+ * A score only regresses when it moved past the tolerance and its error
+ * interval no longer overlaps the baseline's; scores are only comparable
+ * with a baseline recorded on the same machine and JVM.
+ */
+public class BenchmarkBaselineComparator {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        Path result = Path.of(args[0]);
+        Path baseline = Path.of(args[1]);
+        double tolerance = Double.parseDouble(args[2]);
+        boolean failOnRegression = Boolean.parseBoolean(args[3]);
+
+        if (!Files.exists(baseline)) {
+            System.out.printf("no baseline at %s, keep this run as one with: cp %s %s%n",
+                    baseline, result, baseline);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode currentRun = objectMapper.readTree(result.toFile());
+        JsonNode baselineRun = objectMapper.readTree(baseline.toFile());
+        String jvm = jvm(currentRun);
+        String baselineJvm = jvm(baselineRun);
+        if (!jvm.equals(baselineJvm)) {
+            System.out.printf("the baseline ran on %s, this run on %s; record a baseline on this machine%n",
+                    baselineJvm, jvm);
+        }
+        Map<String, JsonNode> current = index(currentRun);
+        Map<String, JsonNode> previous = index(baselineRun);
+
+        int regressions = 0;
+        System.out.printf("%-80s %25s %25s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = previous.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-80s %14s%n", entry.getKey(), "new");
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            // throughput is better higher, every other mode is a time and better lower
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            regressions += compare(entry.getKey(),
+                    before.path("primaryMetric"), after.path("primaryMetric"), higherIsBetter, tolerance);
+            JsonNode allocationBefore = before.path("secondaryMetrics").path(ALLOCATION);
+            JsonNode allocationAfter = after.path("secondaryMetrics").path(ALLOCATION);
+            if (!allocationBefore.isMissingNode() && !allocationAfter.isMissingNode()) {
+                regressions += compare(entry.getKey() + " " + ALLOCATION,
+                        allocationBefore, allocationAfter, false, tolerance);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%s score(s) regressed by more than %s%% and their error%n", regressions, tolerance);
+            if (failOnRegression) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // the jvm and its version of a run's first score, they are the same for all of them
+    private static String jvm(JsonNode run) {
+        JsonNode score = run.path(0);
+        return score.path("jvm").asText() + " " + score.path("vmVersion").asText();
+    }
+
+    // benchmark, mode and params identify a score across runs
+    private static Map<String, JsonNode> index(JsonNode run) {
+        Map<String, JsonNode> scores = new LinkedHashMap<>();
+        for (JsonNode score : run) {
+            StringBuilder key = new StringBuilder(score.path("benchmark").asText())
+                    .append(" [").append(score.path("mode").asText()).append(']');
+            Map<String, String> params = new TreeMap<>();
+            score.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+            if (!params.isEmpty()) {
+                key.append(' ').append(params);
+            }
+            scores.put(key.toString(), score);
+        }
+        return scores;
+    }
+
+    private static int compare(String name, JsonNode before, JsonNode after,
+                               boolean higherIsBetter, double tolerance) {
+        double was = before.path("score").asDouble();
+        double now = after.path("score").asDouble();
+        double wasError = error(before);
+        double nowError = error(after);
+        double change = was == 0 ? 0 : (now - was) / was * 100;
+        boolean worse = higherIsBetter ? change < -tolerance : change > tolerance;
+        // a move both error intervals still cover is noise, not a regression
+        boolean apart = higherIsBetter
+                ? now + nowError < was - wasError
+                : now - nowError > was + wasError;
+        boolean regressed = worse && apart;
+        System.out.printf("%-80s %13.3f +-%9.3f %13.3f +-%9.3f %+8.1f%% %s%s%n",
+                name, was, wasError, now, nowError, change, after.path("scoreUnit").asText(),
+                regressed ? "  REGRESSION" : worse ? "  within error" : "");
+        return regressed ? 1 : 0;
+    }
+
+    // the 99.9% half-width JMH reports, NaN with a single iteration and taken as none
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,40 @@
+package com.backend.jwt;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// JWTUtil on its own: signing at login/registration, parsing on the legacy check
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTUtilBenchmark {
+
+    private static final String SUBJECT = "member@mail.corp";
+
+    private final JWTUtil jwtUtil = new JWTUtil();
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = jwtUtil.issueToken(SUBJECT, "ROLE_USER");
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return jwtUtil.issueToken(SUBJECT, "ROLE_USER");
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtUtil.getSubject(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token, SUBJECT);
+    }
+}
@@ -0,0 +1,37 @@
+package com.backend.jwt;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+// per-request token check: JWTUtil (three parses) vs JWTVerifier (one parse)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTVerificationBenchmark {
+
+    private final JWTUtil jwtUtil = new JWTUtil();
+    private final JWTVerifier jwtVerifier = new JWTVerifier();
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = jwtUtil.issueToken("member@mail.corp", "ROLE_USER");
+    }
+
+    @Benchmark
+    public boolean jwtUtil() {
+        String subject = jwtUtil.getSubject(token);
+        return jwtUtil.isTokenValid(token, subject);
+    }
+
+    @Benchmark
+    public boolean jwtVerifier() {
+        VerifiedToken verified = jwtVerifier.verify(token);
+        return verified.isIssuedTo(verified.subject()) && !verified.isExpired(Instant.now());
+    }
+}
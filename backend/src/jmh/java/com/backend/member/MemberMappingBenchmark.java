@@ -0,0 +1,38 @@
+package com.backend.member;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// the two mapping steps of every member read, separately
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberMappingBenchmark {
+
+    private final MemberRowMapper memberRowMapper = new MemberRowMapper();
+    private final MemberDTOMapper memberDTOMapper = new MemberDTOMapper();
+    private ResultSet row;
+    private Member member;
+
+    @Setup
+    public void setUp() throws SQLException {
+        row = MemberRows.fixedRow();
+        member = memberRowMapper.mapRow(row, 1);
+    }
+
+    @Benchmark
+    public Member rowMapper() throws SQLException {
+        return memberRowMapper.mapRow(row, 1);
+    }
+
+    @Benchmark
+    public MemberDTO dtoMapper() {
+        return memberDTOMapper.apply(member);
+    }
+}
@@ -0,0 +1,63 @@
+package com.backend.member;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// one member row to json: MemberRowMapper + MemberDTOMapper + Jackson vs MemberJsonWriter
+// run with the gc profiler, gc.alloc.rate.norm is bytes allocated per row
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberReadPathBenchmark {
+
+    private final MemberRowMapper memberRowMapper = new MemberRowMapper();
+    private final MemberDTOMapper memberDTOMapper = new MemberDTOMapper();
+    private final MemberJsonWriter memberJsonWriter = new MemberJsonWriter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectWriter dtoWriter;
+    private ResultSet row;
+    private JsonGenerator generator;
+
+    @Setup
+    public void setUp() throws IOException {
+        dtoWriter = objectMapper.writerFor(MemberDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        row = MemberRows.fixedRow();
+        generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        generator.close();
+    }
+
+    // cost of reading the columns through the fake result set alone
+    @Benchmark
+    public int resultSetOnly() throws SQLException {
+        return row.getInt(1) + row.getString(2).length() + row.getString(3).length()
+                + row.getInt(4) + row.getString(5).length();
+    }
+
+    @Benchmark
+    public void entityAndDto() throws SQLException, IOException {
+        Member member = memberRowMapper.mapRow(row, 1);
+        dtoWriter.writeValue(generator, memberDTOMapper.apply(member));
+    }
+
+    @Benchmark
+    public void directJson() throws SQLException, IOException {
+        memberJsonWriter.writeRow(row, generator);
+    }
+}
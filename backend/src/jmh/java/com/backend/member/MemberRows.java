@@ -0,0 +1,36 @@
+package com.backend.member;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+
+// fake member rows for the benchmarks, no database involved
+final class MemberRows {
+
+    private MemberRows() {
+    }
+
+    // answers both label and index lookups with the same pre-built values
+    static ResultSet fixedRow() {
+        Integer id = 42;
+        Integer age = 31;
+        Long version = 3L;
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object column = args == null ? null : args[0];
+                    return switch (method.getName()) {
+                        case "getInt" -> column.equals(1) || column.equals("id") ? id : age;
+                        case "getString" -> switch (String.valueOf(column)) {
+                            case "2", "name" -> "Jake Kai";
+                            case "3", "email" -> "jake.kai@mail.corp";
+                            case "password" -> "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5/7.8S5hZ8ZbQ9JQ7aJbqKe";
+                            default -> "MALE";
+                        };
+                        case "getLong" -> version;
+                        case "wasNull" -> false;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+}
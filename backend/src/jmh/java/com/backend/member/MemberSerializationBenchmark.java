@@ -0,0 +1,45 @@
+package com.backend.member;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Jackson writing a List<MemberDTO> the way the list endpoints answer
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberSerializationBenchmark {
+
+    // one member, a typical page and MemberService.MAX_PAGE_SIZE
+    @Param({"1", "100", "1000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectWriter listWriter;
+    private List<MemberDTO> members;
+
+    @Setup
+    public void setUp() {
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, MemberDTO.class));
+        MemberDTOMapper memberDTOMapper = new MemberDTOMapper();
+        members = IntStream.rangeClosed(1, size)
+                .mapToObj(id -> new Member(id, "Member " + id, "member" + id + "@mail.corp",
+                        "password", 20 + id % 60, Gender.values()[id % Gender.values().length]))
+                .map(memberDTOMapper)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writeList() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(members);
+    }
+}
@@ -0,0 +1,11 @@
+package com.backend.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.PRECONDITION_REQUIRED)
+public class PreconditionRequiredException extends RuntimeException{
+    public PreconditionRequiredException(String message){
+        super(message);
+    }
+}
@@ -1,32 +1,46 @@
 package com.backend.jwt;
 
+import com.backend.exceptions.ServiceUnavailableException;
 import com.backend.member.MemberUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
+import java.time.Instant;
 
 @Component
 // filter API requests
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JWTUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final UserDetailsService userDetailsService;
+    // errors raised here are outside any controller, it renders them the same way
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    // build the principal from token claims alone, without loading the member
+    private final boolean statelessPrincipal;
 
-    public JWTAuthenticationFilter(JWTUtil jwtUtil,
-                                   MemberUserDetailsService userDetailsService) {
-        this.jwtUtil = jwtUtil;
+    public JWTAuthenticationFilter(VerifiedTokenCache verifiedTokenCache,
+                                   MemberUserDetailsService userDetailsService,
+                                   @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+                                   @Value("${jwt.stateless-principal:false}") boolean statelessPrincipal) {
+        this.verifiedTokenCache = verifiedTokenCache;
         this.userDetailsService = userDetailsService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -42,16 +56,23 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String jwtToken = authHeader.substring(7); // "Bearer " + JWTtoken
-        String subject = jwtUtil.getSubject(jwtToken);
+        // signature is checked once per token, repeat requests hit the cache
+        VerifiedToken token = verifiedTokenCache.verify(jwtToken);
 
-        if(subject != null &&
+        if(token.subject() != null &&
+                !token.isExpired(Instant.now()) &&
                 SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
-            if(jwtUtil.isTokenValid(jwtToken, userDetails.getUsername())){
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities()
-                        );
+            UsernamePasswordAuthenticationToken authenticationToken;
+            try {
+                authenticationToken = statelessPrincipal
+                        ? claimsAuthentication(token)
+                        : userDetailsAuthentication(token);
+            } catch (ServiceUnavailableException e) {
+                // an overloaded member lookup is a 503 with Retry-After, not a failed authentication
+                handlerExceptionResolver.resolveException(request, response, null, e);
+                return;
+            }
+            if(authenticationToken != null){
                 authenticationToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
@@ -60,4 +81,22 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // principal is the subject (email), authorities come from the scopes claim
+    private UsernamePasswordAuthenticationToken claimsAuthentication(VerifiedToken token) {
+        return new UsernamePasswordAuthenticationToken(
+                token.subject(), null,
+                token.scopes().stream().map(SimpleGrantedAuthority::new).toList()
+        );
+    }
+
+    private UsernamePasswordAuthenticationToken userDetailsAuthentication(VerifiedToken token) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(token.subject());
+        if(!token.isIssuedTo(userDetails.getUsername())){
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities()
+        );
+    }
 }
@@ -17,7 +17,7 @@ import static java.time.temporal.ChronoUnit.HOURS;
 @Service
 public class JWTUtil {
 
-    private static final String SECRET_KEY =
+    static final String SECRET_KEY =
             "special_secret_key123987_special_secret_key123987_special_secret_key123987";
 
     public String issueToken(String subject){
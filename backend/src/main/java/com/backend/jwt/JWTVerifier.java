@@ -0,0 +1,53 @@
+package com.backend.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+@Component
+// verifies a token once and hands out the parsed result
+public class JWTVerifier {
+
+    // key and parser are immutable and thread-safe, build them once
+    private final JwtParser parser;
+
+    public JWTVerifier() {
+        this.parser = Jwts
+                .parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(JWTUtil.SECRET_KEY.getBytes()))
+                .build();
+    }
+
+    /**
+     * Checks the signature and expiry of the token and parses its claims.
+     *
+     * @throws JwtException if the token is malformed, tampered with, expired
+     *                      or never expires
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        // the parser only checks exp when it is there, a token without one is not ours
+        if (claims.getExpiration() == null) {
+            throw new JwtException("token has no expiration");
+        }
+        return new VerifiedToken(
+                claims.getSubject(),
+                scopesOf(claims),
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    private static List<String> scopesOf(Claims claims) {
+        Object scopes = claims.get("scopes");
+        if (scopes instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,23 @@
+package com.backend.jwt;
+
+import java.time.Instant;
+import java.util.List;
+
+// immutable result of a single signature check + parse of a JWT
+public record VerifiedToken(
+        String subject,
+        List<String> scopes,
+        Instant expiresAt
+) {
+    public VerifiedToken {
+        scopes = List.copyOf(scopes);
+    }
+
+    public boolean isIssuedTo(String username) {
+        return subject != null && subject.equals(username);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt.isBefore(now);
+    }
+}
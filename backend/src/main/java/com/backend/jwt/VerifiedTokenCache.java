@@ -0,0 +1,88 @@
+package com.backend.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+@Component
+// skips signature checks for tokens that were already verified
+public class VerifiedTokenCache {
+
+    private final JWTVerifier jwtVerifier;
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JWTVerifier jwtVerifier,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.jwtVerifier = jwtVerifier;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtVerifiedTokens");
+    }
+
+    /**
+     * Returns the cached result for a token seen before, otherwise verifies it
+     * with {@link JWTVerifier} and caches the result until the token expires.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     */
+    public VerifiedToken verify(String token) {
+        // raw tokens are credentials, keep only their digest in memory
+        String key = digest(token);
+        VerifiedToken verified = cache.get(key, k -> jwtVerifier.verify(token));
+        if (verified.isExpired(Instant.now())) {
+            // expired between lookup and use, full verification rejects it
+            cache.invalidate(key);
+            return jwtVerifier.verify(token);
+        }
+        return verified;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM is required to ship SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), value.expiresAt());
+            return Math.max(0, untilExpiry.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Answers email existence checks from an EmailBloomFilter of every member
+ * email. A miss is certain and never reaches the database, only possible
+ * hits are confirmed by the delegate; the unique email constraint stays the
+ * final guard. Rebuilt from the member table on a fixed delay, which also
+ * drops the emails of deleted members, on a thread of its own: a rebuild
+ * streams the whole table and would hold up the shared scheduler's tasks.
+ */
+class BloomFilterMemberDao implements MemberDao {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterMemberDao.class);
+    private static final String METRIC_PREFIX = "member.email.filter";
+    private static final int FETCH_SIZE = 10_000;
+
+    private final MemberDao delegate;
+    private final MemberJdbcDataAccessService source;
+    private final MemberDaoProperties.EmailFilter settings;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    // null until the first build or when disabled, every check goes to the database meanwhile
+    private volatile EmailBloomFilter filter;
+    // the filter being built, it gets every put too so no insert falls between
+    private volatile EmailBloomFilter building;
+
+    private final Counter skipped;
+    private final Counter confirmed;
+    private final Counter falsePositives;
+    private final Counter unavailable;
+    private final Timer rebuildTime;
+
+    BloomFilterMemberDao(MemberDao delegate,
+                         MemberJdbcDataAccessService source,
+                         MemberDaoProperties.EmailFilter settings,
+                         MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.source = source;
+        this.settings = settings;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("member-email-filter-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+        Gauge.builder(METRIC_PREFIX + ".size", this, dao -> dao.filter == null ? 0 : dao.filter.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", this, dao -> dao.filter == null ? 0 : dao.filter.entries())
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".false.positive.rate", this,
+                        dao -> dao.filter == null ? 1 : dao.filter.expectedFalsePositiveRate())
+                .description("expected from the share of bits set")
+                .register(meterRegistry);
+        // skipped lookups are the database calls avoided
+        this.skipped = lookups(meterRegistry, "skipped");
+        this.confirmed = lookups(meterRegistry, "confirmed");
+        this.falsePositives = lookups(meterRegistry, "false_positive");
+        this.unavailable = lookups(meterRegistry, "unavailable");
+        this.rebuildTime = Timer.builder(METRIC_PREFIX + ".rebuild")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_PREFIX + ".lookups")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // the first run builds it right after startup
+    @EventListener(ContextRefreshedEvent.class)
+    public void start() {
+        if (settings.enabled()) {
+            executor.scheduleWithFixedDelay(this::scheduledRebuild,
+                    0, settings.rebuildInterval().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // a task that throws is never run again, the next rebuild has to happen regardless
+    private void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LOGGER.error("email filter rebuild failed, the previous filter stays in use", e);
+        }
+    }
+
+    /**
+     * Streams every email into a new filter, sized for twice the members
+     * or the configured minimum, and swaps it in.
+     */
+    public synchronized void rebuild() {
+        if (!settings.enabled()) {
+            return;
+        }
+        rebuildTime.record(() -> {
+            long members = source.countMembers();
+            EmailBloomFilter next = new EmailBloomFilter(
+                    Math.max(settings.expectedEntries(), members * 2), settings.falsePositiveRate());
+            building = next;
+            try {
+                source.streamEmails(FETCH_SIZE, next::put);
+                filter = next;
+            } finally {
+                building = null;
+            }
+            LOGGER.info("email filter rebuilt over {} members, {} KiB and {} hashes",
+                    next.entries(), next.sizeInBytes() / 1024, next.hashes());
+        });
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        // a bulk import does not list its emails, re-read them all
+        if (event.change() == MemberChangedEvent.Change.CREATED && event.emails().isEmpty()) {
+            requestRebuild();
+        } else if (event.change() != MemberChangedEvent.Change.DELETED) {
+            event.emails().forEach(this::put);
+        }
+    }
+
+    // off the publishing thread; one queued rebuild also covers later requests, it reads the table when it starts
+    private void requestRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                rebuildQueued.set(false);
+                scheduledRebuild();
+            });
+        }
+    }
+
+    private void put(String email) {
+        // building before filter: a rebuild swapping in between either streams
+        // the email from the table or is the filter read below
+        EmailBloomFilter next = building;
+        if (next != null) {
+            next.put(email);
+        }
+        EmailBloomFilter current = filter;
+        if (current != null && current != next) {
+            current.put(email);
+        }
+    }
+
+    @Override
+    public boolean existsMemberWithEmail(String email) {
+        EmailBloomFilter current = filter;
+        if (current == null) {
+            unavailable.increment();
+            return delegate.existsMemberWithEmail(email);
+        }
+        if (!current.mightContain(email)) {
+            skipped.increment();
+            return false;
+        }
+        boolean exists = delegate.existsMemberWithEmail(email);
+        (exists ? confirmed : falsePositives).increment();
+        return exists;
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        EmailBloomFilter current = filter;
+        if (current == null) {
+            unavailable.increment(emails.size());
+            return delegate.selectExistingEmails(emails);
+        }
+        List<String> candidates = emails.stream()
+                .filter(current::mightContain)
+                .toList();
+        skipped.increment(emails.size() - candidates.size());
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> existing = delegate.selectExistingEmails(candidates);
+        confirmed.increment(existing.size());
+        falsePositives.increment(candidates.size() - existing.size());
+        return existing;
+    }
+
+    @Override
+    public Optional<Integer> insertMember(Member member) {
+        Optional<Integer> id = delegate.insertMember(member);
+        // the email exists now, inserted or taken already
+        put(member.getEmail());
+        return id;
+    }
+
+    @Override
+    public Set<String> insertMembers(List<Member> members) {
+        Set<String> inserted = delegate.insertMembers(members);
+        // skipped ones are taken already, they exist too
+        members.forEach(member -> put(member.getEmail()));
+        return inserted;
+    }
+
+    @Override
+    public void updateMember(Member member) {
+        delegate.updateMember(member);
+        put(member.getEmail());
+    }
+
+    @Override
+    public int updateMemberFields(Integer id, MemberUpdateRequest changes, Long expectedVersion) {
+        int updated = delegate.updateMemberFields(id, changes, expectedVersion);
+        if (updated > 0 && changes.email() != null) {
+            put(changes.email());
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Member> selectAllMembers() {
+        return delegate.selectAllMembers();
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit) {
+        return delegate.selectMembersAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Member> selectAllMembers(MemberFields fields) {
+        return delegate.selectAllMembers(fields);
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit, MemberFields fields) {
+        return delegate.selectMembersAfter(afterId, limit, fields);
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id) {
+        return delegate.selectMemberById(id);
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id, MemberFields fields) {
+        return delegate.selectMemberById(id, fields);
+    }
+
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids) {
+        return delegate.selectMembersByIds(ids);
+    }
+
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids, MemberFields fields) {
+        return delegate.selectMembersByIds(ids, fields);
+    }
+
+    @Override
+    public Optional<String> deleteMemberById(Integer id) {
+        // stays in the filter until the next rebuild, a false positive meanwhile
+        return delegate.deleteMemberById(id);
+    }
+
+    @Override
+    public void updateMemberPassword(String email, String password) {
+        delegate.updateMemberPassword(email, password);
+    }
+
+    @Override
+    public boolean existsMemberWithId(Integer id) {
+        return delegate.existsMemberWithId(id);
+    }
+
+    @Override
+    public Optional<Member> selectUserByEmail(String email) {
+        return delegate.selectUserByEmail(email);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
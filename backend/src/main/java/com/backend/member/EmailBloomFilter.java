@@ -0,0 +1,104 @@
+package com.backend.member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over member emails: no false negatives, false positives at
+ * about the rate it was sized for. Lock-free, bits are set with CAS, and
+ * nothing is ever removed; deletions only go away when it is rebuilt.
+ */
+final class EmailBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashes;
+    private final AtomicLong setBits = new AtomicLong();
+    private final AtomicLong entries = new AtomicLong();
+
+    EmailBloomFilter(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        // optimal size and hash count for n entries at the given rate
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+        this.bitSize = words.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bitSize / n * LN2));
+    }
+
+    void put(String email) {
+        long h1 = hash(email);
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            if (setBit(Math.floorMod(h1 + i * h2, bitSize))) {
+                setBits.incrementAndGet();
+            }
+        }
+        entries.incrementAndGet();
+    }
+
+    boolean mightContain(String email) {
+        long h1 = hash(email);
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // false when the bit was already set
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long old;
+        do {
+            old = words.get(word);
+            if ((old & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(word, old, old | mask));
+        return true;
+    }
+
+    // what a lookup of an absent email currently risks, from how full the bits are
+    double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.get() / bitSize, hashes);
+    }
+
+    long sizeInBytes() {
+        return bitSize / 8;
+    }
+
+    // puts, an email put twice counts twice
+    long entries() {
+        return entries.get();
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the murmur3 mixer
+    private static long hash(String email) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -17,6 +17,10 @@ import java.util.Objects;
                         columnNames = "email")
         })
 public class Member implements UserDetails {
+
+    // every member is a plain user
+    static final String DEFAULT_ROLE = "ROLE_USER";
+
     @Id
     @SequenceGenerator(name = "member_id_seq",
                         sequenceName = "member_id_seq",
@@ -39,6 +43,11 @@ public class Member implements UserDetails {
     @Column(nullable = false)
     private String password;
 
+    // primitive, so a detached member with an id is still merged rather than persisted
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public Member(){}
 
     public Member(String name, String email, String password, int age, Gender gender) {
@@ -98,6 +107,22 @@ public class Member implements UserDetails {
         this.gender = gender;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    // a detached copy, for handing one loaded member to several callers
+    static Member copyOf(Member member) {
+        Member copy = new Member(member.id, member.name, member.email,
+                member.password, member.age, member.gender);
+        copy.version = member.version;
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -119,12 +144,13 @@ public class Member implements UserDetails {
                 ", email='" + email + '\'' +
                 ", gender=" + gender +
                 ", age=" + age +
+                ", version=" + version +
                 '}';
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return List.of(new SimpleGrantedAuthority(DEFAULT_ROLE));
     }
 
     @Override
@@ -0,0 +1,27 @@
+package com.backend.member;
+
+public record MemberBatchResult(
+        // position of the row in the request
+        int index,
+        String email,
+        Status status,
+        String message
+) {
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    static MemberBatchResult created(int index, String email) {
+        return new MemberBatchResult(index, email, Status.CREATED, null);
+    }
+
+    static MemberBatchResult duplicate(int index, String email, String message) {
+        return new MemberBatchResult(index, email, Status.DUPLICATE, message);
+    }
+
+    static MemberBatchResult invalid(int index, String email, String message) {
+        return new MemberBatchResult(index, email, Status.INVALID, message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.backend.member;
+
+import java.util.Set;
+
+// published by NearCacheMemberDao for every invalidation it receives, from
+// this node or another one, so caches above the MemberDao drop the same members
+public record MemberCacheEvictedEvent(
+        // the emails of the evicted members
+        Set<String> emails,
+        // set when notifications may have been missed, everything is stale
+        boolean all
+) {
+    public MemberCacheEvictedEvent {
+        emails = Set.copyOf(emails);
+    }
+
+    static MemberCacheEvictedEvent of(Set<String> emails) {
+        return new MemberCacheEvictedEvent(emails, false);
+    }
+
+    static MemberCacheEvictedEvent everything() {
+        return new MemberCacheEvictedEvent(Set.of(), true);
+    }
+}
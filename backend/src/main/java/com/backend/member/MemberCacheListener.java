@@ -0,0 +1,129 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * LISTENs on the near cache channel over a connection of its own, outside
+ * the pool, and passes every notification to NearCacheMemberDao. When the
+ * connection drops it reconnects and clears the cache, whatever was sent
+ * in between is lost.
+ */
+class MemberCacheListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemberCacheListener.class);
+    // LISTEN takes an identifier, not a bind parameter
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_MILLIS = 500;
+
+    private final NearCacheMemberDao nearCache;
+    private final JdbcConnectionDetails connectionDetails;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private final Counter reconnects;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Connection connection;
+
+    MemberCacheListener(NearCacheMemberDao nearCache,
+                        JdbcConnectionDetails connectionDetails,
+                        MemberDaoProperties.NearCache settings,
+                        MeterRegistry meterRegistry) {
+        if (!CHANNEL.matcher(settings.channel()).matches()) {
+            throw new IllegalArgumentException("not a valid channel name: " + settings.channel());
+        }
+        this.nearCache = nearCache;
+        this.connectionDetails = connectionDetails;
+        this.channel = settings.channel();
+        this.reconnectDelay = settings.reconnectDelay();
+        this.reconnects = Counter.builder("member.near.cache.reconnects")
+                .register(meterRegistry);
+        this.thread = new Thread(this::run, "member-cache-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(
+                    connectionDetails.getJdbcUrl(),
+                    connectionDetails.getUsername(),
+                    connectionDetails.getPassword())) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // only now is nothing missed any more
+                nearCache.invalidateAll();
+                LOGGER.info("listening for member cache invalidations on {}", channel);
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                reconnects.increment();
+                LOGGER.warn("member cache listener lost its connection, retrying in {}", reconnectDelay, e);
+                nearCache.invalidateAll();
+                sleep();
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    // a notification that cannot be applied must not end the thread, and with it invalidation
+    private void handle(String payload) {
+        try {
+            nearCache.onNotification(payload);
+        } catch (RuntimeException e) {
+            LOGGER.error("member cache invalidation {} failed, clearing the cache", payload, e);
+            nearCache.invalidateAll();
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    // picked up by Spring as the bean's destroy method
+    public void shutdown() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        Connection current = connection;
+        if (current != null) {
+            try {
+                // wakes a thread blocked waiting for notifications
+                current.close();
+            } catch (SQLException e) {
+                LOGGER.debug("closing the member cache listener connection failed", e);
+            }
+        }
+        thread.join(Duration.ofSeconds(5).toMillis());
+    }
+}
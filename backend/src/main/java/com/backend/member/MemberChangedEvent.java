@@ -0,0 +1,22 @@
+package com.backend.member;
+
+import java.util.Set;
+
+// published by MemberService after a member row was written
+public record MemberChangedEvent(
+        Change change,
+        // null for a batch of new members
+        Integer id,
+        // every email the change touched, old and new
+        Set<String> emails
+) {
+    public MemberChangedEvent {
+        emails = Set.copyOf(emails);
+    }
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
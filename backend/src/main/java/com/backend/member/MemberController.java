@@ -1,9 +1,14 @@
 package com.backend.member;
 
+import com.backend.exceptions.RequestValidationException;
 import com.backend.jwt.JWTUtil;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -11,22 +16,127 @@ import java.util.List;
 @RequestMapping("api/v1/members")
 public class MemberController {
 
+    // clients keep the list but ask every time whether it is still current
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final MemberService memberService;
+    private final MemberJsonService memberJsonService;
+    private final MemberExportService memberExportService;
+    private final MemberListVersion memberListVersion;
     private final JWTUtil jwtUtil;
 
-    public MemberController(MemberService memberService, JWTUtil jwtUtil){
+    public MemberController(MemberService memberService,
+                            MemberJsonService memberJsonService,
+                            MemberExportService memberExportService,
+                            MemberListVersion memberListVersion,
+                            JWTUtil jwtUtil){
         this.memberService = memberService;
+        this.memberJsonService = memberJsonService;
+        this.memberExportService = memberExportService;
+        this.memberListVersion = memberListVersion;
         this.jwtUtil = jwtUtil;
     }
 
+    // same body as a List<MemberDTO>, written directly from the result set;
+    // a poll with the current ETag is answered without going to the database.
+    // Reads take ?fields=id,name,... and select only the columns those need
     @GetMapping
-    public List<MemberDTO> getMembers(){
-        return memberService.getAllMembers();
+    public ResponseEntity<byte[]> getMembers(@RequestParam(value = "fields", required = false) String fields,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                             String ifNoneMatch){
+        MemberFields projection = MemberFields.parse(fields);
+        // read before the rows, so a body is never labelled newer than it is
+        String etag = MemberETag.ofList(memberListVersion.current(), projection);
+        if (MemberETag.noneMatchHits(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(REVALIDATE)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(memberJsonService.getAllMembersJson(projection));
+    }
+
+    // same body as a MemberPage
+    @GetMapping(params = "limit")
+    public ResponseEntity<byte[]> getMembersPage(@RequestParam("limit") int limit,
+                                                 @RequestParam(value = "after", required = false) String after,
+                                                 @RequestParam(value = "fields", required = false) String fields){
+        return json(memberJsonService.getMembersPageJson(after, limit, MemberFields.parse(fields)));
+    }
+
+    // ?minAge=18&gender=female&name=Jo&sort=age,desc, a MemberPage of the matches
+    @GetMapping("search")
+    public ResponseEntity<byte[]> searchMembers(@RequestParam(value = "minAge", required = false) Integer minAge,
+                                                @RequestParam(value = "maxAge", required = false) Integer maxAge,
+                                                @RequestParam(value = "gender", required = false) String gender,
+                                                @RequestParam(value = "name", required = false) String namePrefix,
+                                                @RequestParam(value = "sort", required = false) String sort,
+                                                @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                @RequestParam(value = "after", required = false) String after,
+                                                @RequestParam(value = "fields", required = false) String fields){
+        MemberSearch search = MemberSearch.parse(minAge, maxAge, gender, namePrefix, sort);
+        return json(memberJsonService.searchMembersJson(search, after, limit, MemberFields.parse(fields)));
+    }
+
+    // ?ids=4,1,9 in one query instead of a request per member, same body as a MemberLookup
+    @GetMapping(params = "ids")
+    public ResponseEntity<byte[]> getMembersByIds(@RequestParam("ids") List<Integer> ids,
+                                                  @RequestParam(value = "fields", required = false) String fields){
+        return json(memberJsonService.getMembersByIdsJson(ids, MemberFields.parse(fields)));
+    }
+
+    // matches ahead of both above, neither would be the right answer
+    @GetMapping(params = {"ids", "limit"})
+    public ResponseEntity<byte[]> getMembersByIdsPage(){
+        throw new RequestValidationException("ids and limit cannot be combined, a lookup is not paged");
+    }
+
+    // the same for more ids than fit in a url
+    @PostMapping("lookup")
+    public ResponseEntity<byte[]> lookupMembers(@RequestBody List<Integer> ids,
+                                                @RequestParam(value = "fields", required = false) String fields){
+        return json(memberJsonService.getMembersByIdsJson(ids, MemberFields.parse(fields)));
     }
 
+    private static ResponseEntity<byte[]> json(byte[] body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMembers(@RequestParam(value = "fields", required = false)
+                                                               String fields){
+        MemberFields projection = MemberFields.parse(fields);
+        // written on an async thread, straight to the response stream
+        StreamingResponseBody body = out -> memberExportService.exportMembers(out, projection);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // a matching If-None-Match is answered from the version column alone
     @GetMapping("{id}")
-    public MemberDTO getMember(@PathVariable("id") Integer memberId){
-        return memberService.getMember(memberId);
+    public ResponseEntity<byte[]> getMember(@PathVariable("id") Integer memberId,
+                                            @RequestParam(value = "fields", required = false) String fields,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                            String ifNoneMatch){
+        MemberFields projection = MemberFields.parse(fields);
+        MemberJsonService.VersionedJson member = memberJsonService.getMemberJson(memberId, projection,
+                version -> MemberETag.noneMatchHits(ifNoneMatch, MemberETag.of(version, projection)));
+        if (member.body() == null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(MemberETag.of(member.version(), projection))
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(MemberETag.of(member.version(), projection))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(member.body());
     }
 
     @PostMapping
@@ -40,15 +150,26 @@ public class MemberController {
                 .build();
     }
 
+    @PostMapping("batch")
+    public List<MemberBatchResult> registerMembers(@RequestBody List<MemberRegistrationRequest> registrationRequests){
+        return memberService.addMembers(registrationRequests);
+    }
+
     @DeleteMapping("{id}")
     public void deleteMember(@PathVariable("id") Integer id){
         memberService.deleteMemberById(id);
     }
 
+    // If-Match carries the ETag the client last read, 412 if someone wrote since
     @PutMapping("{id}")
-    public void updateMember(@PathVariable("id") Integer id,
-                             @RequestBody MemberUpdateRequest request){
+    public ResponseEntity<Void> updateMember(@PathVariable("id") Integer id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                             String ifMatch,
+                                             @RequestBody MemberUpdateRequest request){
 
-        memberService.updateMember(id, request);
+        long version = memberService.updateMember(id, request, MemberETag.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(MemberETag.of(version))
+                .build();
     }
 }
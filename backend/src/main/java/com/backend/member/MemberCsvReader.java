@@ -0,0 +1,71 @@
+package com.backend.member;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// minimal RFC 4180 reader: quoted fields, doubled quotes, CRLF or LF line ends
+class MemberCsvReader {
+
+    private final BufferedReader reader;
+    private int lineNumber = 1;
+    private int recordLine;
+
+    MemberCsvReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record, or returns {@code null} at the end of the input.
+     * A quoted field may span lines, {@link #line()} reports where the record started.
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        recordLine = lineNumber;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                lineNumber++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    int line() {
+        return recordLine;
+    }
+}
@@ -0,0 +1,76 @@
+package com.backend.member;
+
+import com.backend.exceptions.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// opaque page cursor wrapping the last member id of a page; a search sorted
+// on another column also carries the row's value of it: "age:17:42"
+final class MemberCursor {
+
+    private static final String PREFIX = "id:";
+
+    private MemberCursor() {
+    }
+
+    static String encode(Integer lastId) {
+        return encode(PREFIX + lastId);
+    }
+
+    static String encode(MemberSearch.Sort sort, Object lastValue, Integer lastId) {
+        if (sort == MemberSearch.Sort.ID) {
+            return encode(lastId);
+        }
+        // the value goes last, a name may contain the separator
+        return encode(sort.key() + ":" + lastId + ":" + lastValue);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Integer decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = decodeValue(cursor);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(value);
+            }
+            return Integer.valueOf(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("invalid cursor [%s]".formatted(cursor));
+        }
+    }
+
+    // a cursor taken in another sort is rejected, it does not point into this one
+    static MemberSearch.Keyset decode(String cursor, MemberSearch.Sort sort) {
+        if (sort == MemberSearch.Sort.ID) {
+            Integer lastId = decode(cursor);
+            return lastId == null ? null : new MemberSearch.Keyset(lastId, lastId);
+        }
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = decodeValue(cursor);
+            String prefix = sort.key() + ":";
+            int separator = value.indexOf(':', prefix.length());
+            if (!value.startsWith(prefix) || separator < 0) {
+                throw new IllegalArgumentException(value);
+            }
+            return new MemberSearch.Keyset(
+                    sort.parse(value.substring(separator + 1)),
+                    Integer.valueOf(value.substring(prefix.length(), separator)));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("invalid cursor [%s]".formatted(cursor));
+        }
+    }
+
+    private static String decodeValue(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
@@ -9,6 +9,7 @@ public record MemberDTO(
         Integer age,
         Gender gender,
         List<String> roles,
-        String username
+        String username,
+        long version
 ) {
 }
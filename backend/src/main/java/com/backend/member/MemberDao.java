@@ -1,15 +1,40 @@
 package com.backend.member;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface MemberDao {
     List<Member> selectAllMembers();
+    // keyset page: members with id > afterId in id order, no count query
+    List<Member> selectMembersAfter(Integer afterId, int limit);
+    // the same two reading only the columns of fields, in id order; the rest of
+    // each member is left null, the password always, see MemberFields
+    List<Member> selectAllMembers(MemberFields fields);
+    List<Member> selectMembersAfter(Integer afterId, int limit, MemberFields fields);
     Optional<Member> selectMemberById(Integer id);
-    void insertMember(Member member);
-    void deleteMemberById(Integer id);
+    // at least the columns of fields, a cache may fill in the others; never the password
+    Optional<Member> selectMemberById(Integer id, MemberFields fields);
+    // the members among these ids in no particular order, unknown ids are left out
+    List<Member> selectMembersByIds(Collection<Integer> ids);
+    // the same with at least the columns of fields, like selectMemberById above
+    List<Member> selectMembersByIds(Collection<Integer> ids, MemberFields fields);
+    // the new member's id, empty when the email is already taken
+    Optional<Integer> insertMember(Member member);
+    // the emails inserted; a member whose email is taken already is skipped
+    Set<String> insertMembers(List<Member> members);
+    // the deleted member's email, empty when there was no such member
+    Optional<String> deleteMemberById(Integer id);
+    // fails with OptimisticLockingFailureException if the member's version is stale
     void updateMember(Member member);
+    // writes only the non-null fields and bumps the version, returns the number
+    // of rows updated; 0 as well when expectedVersion is set and no longer current
+    int updateMemberFields(Integer id, MemberUpdateRequest changes, Long expectedVersion);
+    void updateMemberPassword(String email, String password);
     boolean existsMemberWithEmail(String email);
+    // the subset of the given emails that already belong to a member
+    Set<String> selectExistingEmails(Collection<String> emails);
     boolean existsMemberWithId(Integer id);
     Optional<Member> selectUserByEmail(String email);
 }
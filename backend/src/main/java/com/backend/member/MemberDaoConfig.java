@@ -0,0 +1,65 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(MemberDaoProperties.class)
+public class MemberDaoConfig {
+
+    @Bean
+    RoutingMemberDao routingMemberDao(@Qualifier("jpa") MemberDao jpa,
+                                      @Qualifier("jdbc") MemberDao jdbc,
+                                      MemberDaoProperties properties,
+                                      MeterRegistry meterRegistry) {
+        return new RoutingMemberDao(Map.of("jpa", jpa, "jdbc", jdbc), properties, meterRegistry);
+    }
+
+    // a bean of its own for the scheduled rebuild, passes through when disabled
+    @Bean
+    BloomFilterMemberDao emailFilterMemberDao(RoutingMemberDao routingMemberDao,
+                                              MemberJdbcDataAccessService jdbc,
+                                              MemberDaoProperties properties,
+                                              MeterRegistry meterRegistry) {
+        return new BloomFilterMemberDao(routingMemberDao, jdbc, properties.emailFilter(), meterRegistry);
+    }
+
+    @Bean
+    NearCacheMemberDao nearCacheMemberDao(BloomFilterMemberDao emailFilterMemberDao,
+                                          JdbcTemplate jdbcTemplate,
+                                          ApplicationEventPublisher eventPublisher,
+                                          MemberDaoProperties properties,
+                                          MeterRegistry meterRegistry) {
+        return new NearCacheMemberDao(emailFilterMemberDao, jdbcTemplate, eventPublisher,
+                properties.nearCache(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "member.dao.near-cache", name = "enabled", matchIfMissing = true)
+    MemberCacheListener memberCacheListener(NearCacheMemberDao nearCacheMemberDao,
+                                            JdbcConnectionDetails connectionDetails,
+                                            MemberDaoProperties properties,
+                                            MeterRegistry meterRegistry) {
+        return new MemberCacheListener(nearCacheMemberDao, connectionDetails, properties.nearCache(), meterRegistry);
+    }
+
+    // what services inject, the jpa and jdbc beans stay available by name;
+    // above the near cache, whose eviction check must see when a shared load began
+    @Bean
+    @Primary
+    SingleFlightMemberDao memberDao(NearCacheMemberDao nearCacheMemberDao,
+                                    MemberDaoProperties properties,
+                                    MeterRegistry meterRegistry) {
+        return new SingleFlightMemberDao(nearCacheMemberDao, properties.singleFlight(), meterRegistry);
+    }
+}
@@ -0,0 +1,74 @@
+package com.backend.member;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which MemberDao bean, {@code jpa} or {@code jdbc}, serves each operation.
+ * Route keys are MemberDao method names, anything not routed uses the default.
+ */
+@ConfigurationProperties("member.dao")
+public record MemberDaoProperties(
+        @DefaultValue("jpa") String defaultBackend,
+        Map<String, String> routes,
+        @DefaultValue Shadow shadow,
+        @DefaultValue EmailFilter emailFilter,
+        @DefaultValue NearCache nearCache,
+        @DefaultValue SingleFlight singleFlight
+) {
+    public MemberDaoProperties {
+        routes = routes == null ? Map.of() : Map.copyOf(routes);
+    }
+
+    /**
+     * Repeats a sample of reads on the other backend in the background and
+     * compares results and latency. A sample rate of 0 turns it off.
+     */
+    public record Shadow(
+            @DefaultValue("0") double sampleRate,
+            @DefaultValue({"selectMemberById", "selectUserByEmail", "selectMembersByIds", "selectAllMembers"}) Set<String> operations,
+            @DefaultValue("2") int threads,
+            // shadow calls beyond this are dropped, never queued on the caller
+            @DefaultValue("100") int queueCapacity
+    ) {
+    }
+
+    /**
+     * The Bloom filter in front of email existence checks, see BloomFilterMemberDao.
+     * Sized for at least expectedEntries, or twice the members when rebuilt.
+     */
+    public record EmailFilter(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1000000") long expectedEntries,
+            @DefaultValue("0.01") double falsePositiveRate,
+            @DefaultValue("1h") Duration rebuildInterval
+    ) {
+    }
+
+    /**
+     * The per node cache of members by id and email, see NearCacheMemberDao.
+     * Writes are sent to every node on the channel with NOTIFY.
+     */
+    public record NearCache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1m") Duration ttl,
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("member_changed") String channel,
+            @DefaultValue("1s") Duration reconnectDelay
+    ) {
+    }
+
+    /**
+     * Concurrent lookups of one member share a call, see SingleFlightMemberDao.
+     * Callers waiting longer than maxWait get a 503.
+     */
+    public record SingleFlight(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("2s") Duration maxWait
+    ) {
+    }
+}
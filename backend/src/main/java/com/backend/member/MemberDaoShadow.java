@@ -0,0 +1,129 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Replays sampled reads on a second backend off the request thread and
+ * records whether both answered the same and how their latency compares.
+ */
+class MemberDaoShadow {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemberDaoShadow.class);
+    private static final String METRIC_PREFIX = "member.dao.shadow";
+
+    private final double sampleRate;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    MemberDaoShadow(MemberDaoProperties.Shadow settings, MeterRegistry meterRegistry) {
+        this.sampleRate = settings.sampleRate();
+        this.meterRegistry = meterRegistry;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("member-dao-shadow-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(
+                settings.threads(), settings.threads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    boolean sample() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Queues the shadow call, or drops it when the executor is saturated.
+     * Never blocks and never throws to the caller.
+     */
+    <T> void compare(String operation,
+                     String backend,
+                     String shadowBackend,
+                     T expected,
+                     long elapsedNanos,
+                     Supplier<T> shadowCall) {
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                T actual;
+                try {
+                    actual = shadowCall.get();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("shadow {} on {} failed", operation, shadowBackend, e);
+                    count(operation, "error");
+                    return;
+                }
+                long shadowNanos = System.nanoTime() - start;
+
+                latency(operation, backend, "primary").record(elapsedNanos, TimeUnit.NANOSECONDS);
+                latency(operation, shadowBackend, "shadow").record(shadowNanos, TimeUnit.NANOSECONDS);
+                // below 1 the shadow backend was faster
+                DistributionSummary.builder(METRIC_PREFIX + ".latency.ratio")
+                        .tag("operation", operation)
+                        .register(meterRegistry)
+                        .record((double) shadowNanos / Math.max(1, elapsedNanos));
+
+                if (comparable(expected).equals(comparable(actual))) {
+                    count(operation, "match");
+                } else {
+                    LOGGER.warn("shadow {} mismatch: {} returned {}, {} returned {}",
+                            operation, backend, expected, shadowBackend, actual);
+                    count(operation, "mismatch");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            count(operation, "dropped");
+        }
+    }
+
+    private Timer latency(String operation, String backend, String role) {
+        return Timer.builder(METRIC_PREFIX + ".latency")
+                .tag("operation", operation)
+                .tag("backend", backend)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    private void count(String operation, String outcome) {
+        meterRegistry.counter(METRIC_PREFIX, "operation", operation, "outcome", outcome).increment();
+    }
+
+    // Member.equals leaves out the password, and backends may order lists differently
+    static Object comparable(Object result) {
+        if (result instanceof Optional<?> optional) {
+            return optional.map(MemberDaoShadow::comparable);
+        }
+        if (result instanceof List<?> list) {
+            return list.stream()
+                    .map(m -> (Member) m)
+                    .sorted(Comparator.comparing(Member::getId))
+                    .map(MemberDaoShadow::comparable)
+                    .toList();
+        }
+        if (result instanceof Member member) {
+            return Arrays.asList(member.getId(), member.getName(), member.getEmail(),
+                    member.getPassword(), member.getAge(), member.getGender(), member.getVersion());
+        }
+        return result;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
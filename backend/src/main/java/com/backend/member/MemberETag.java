@@ -0,0 +1,86 @@
+package com.backend.member;
+
+import com.backend.exceptions.PreconditionFailedException;
+import com.backend.exceptions.PreconditionRequiredException;
+
+/**
+ * A member's ETag is its row version, quoted: {@code "3"}; the list's is the
+ * member_list_version counter: {@code "list-7"}. Both are strong, they change
+ * with every update of the fields a client can see. A read of some fields
+ * only is another representation and names them: {@code "3;name.email"}.
+ */
+final class MemberETag {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private MemberETag() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String ofList(long version) {
+        return "\"list-" + version + "\"";
+    }
+
+    static String of(long version, MemberFields fields) {
+        return withFields(of(version), fields);
+    }
+
+    static String ofList(long version, MemberFields fields) {
+        return withFields(ofList(version), fields);
+    }
+
+    private static String withFields(String etag, MemberFields fields) {
+        String key = fields.key();
+        if (key.isEmpty()) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + ";" + key + "\"";
+    }
+
+    // If-None-Match compares weakly, a W/ tag still matches
+    static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an If-Match header asks for, null for {@code *}. Only a
+     * single strong tag names one version to update from.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            throw new PreconditionRequiredException(
+                    "If-Match is required, send the ETag of the member as last read");
+        }
+        String tag = ifMatch.strip();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            String value = tag.substring(1, tag.length() - 1);
+            // any representation of the member carries its version
+            int fields = value.indexOf(';');
+            try {
+                return Long.parseLong(fields < 0 ? value : value.substring(0, fields));
+            } catch (NumberFormatException e) {
+                // falls through, not one of our tags
+            }
+        }
+        throw new PreconditionFailedException(
+                "If-Match [%s] is not a current ETag of this member".formatted(ifMatch));
+    }
+}
@@ -0,0 +1,52 @@
+package com.backend.member;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Service
+// writes the whole member table as newline-delimited JSON
+public class MemberExportService {
+
+    private final MemberJdbcDataAccessService memberDao;
+    private final MemberJsonWriter memberJsonWriter;
+    private final JsonFactory jsonFactory;
+    private final int fetchSize;
+
+    public MemberExportService(MemberJdbcDataAccessService memberDao,
+                               MemberJsonWriter memberJsonWriter,
+                               ObjectMapper objectMapper,
+                               @Value("${member.export.fetch-size:500}") int fetchSize) {
+        this.memberDao = memberDao;
+        this.memberJsonWriter = memberJsonWriter;
+        this.jsonFactory = objectMapper.getFactory();
+        this.fetchSize = fetchSize;
+    }
+
+    public void exportMembers(OutputStream out) throws IOException {
+        exportMembers(out, MemberFields.ALL);
+    }
+
+    void exportMembers(OutputStream out, MemberFields fields) throws IOException {
+        // flushed when the generator buffer fills, a slow client blocks the cursor
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            memberDao.streamMemberRows(fetchSize, fields, rs -> {
+                try {
+                    memberJsonWriter.writeRow(rs, generator, fields);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
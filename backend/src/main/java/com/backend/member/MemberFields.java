@@ -0,0 +1,155 @@
+package com.backend.member;
+
+import com.backend.exceptions.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The MemberDTO fields a read asks for with {@code fields=name,email}, and
+ * the member columns selected to write them. The password is never among
+ * the columns, whatever is asked for.
+ */
+final class MemberFields {
+
+    // in select list order
+    enum Column {
+        ID("id"),
+        NAME("name"),
+        EMAIL("email"),
+        AGE("age"),
+        GENDER("gender"),
+        VERSION("version");
+
+        private final String name;
+
+        Column(String name) {
+            this.name = name;
+        }
+    }
+
+    // in MemberDTO component order
+    enum Field {
+        ID(Column.ID),
+        NAME(Column.NAME),
+        EMAIL(Column.EMAIL),
+        AGE(Column.AGE),
+        GENDER(Column.GENDER),
+        // the same for everyone, nothing to select
+        ROLES(null),
+        // the email, see Member.getUsername
+        USERNAME(Column.EMAIL),
+        VERSION(Column.VERSION);
+
+        private final Column column;
+
+        Field(Column column) {
+            this.column = column;
+        }
+
+        String jsonName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static final MemberFields ALL = new MemberFields(EnumSet.allOf(Field.class), EnumSet.noneOf(Column.class));
+
+    private final Set<Field> fields;
+    private final Set<Column> columns;
+    // 1-based position of each column in the select list, 0 if not selected
+    private final int[] positions = new int[Column.values().length];
+    private final String selectList;
+
+    private MemberFields(Set<Field> fields, Set<Column> required) {
+        this.fields = fields;
+        this.columns = EnumSet.copyOf(required);
+        fields.stream()
+                .filter(field -> field.column != null)
+                .forEach(field -> columns.add(field.column));
+        if (columns.isEmpty()) {
+            // roles alone, still one row per member
+            columns.add(Column.ID);
+        }
+        int position = 0;
+        for (Column column : columns) {
+            positions[column.ordinal()] = ++position;
+        }
+        this.selectList = columns.stream()
+                .map(column -> column.name)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * The fields of a comma separated {@code fields} parameter, every field
+     * when it is absent.
+     */
+    static MemberFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<Field> parsed = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            parsed.add(Arrays.stream(Field.values())
+                    .filter(field -> field.jsonName().equals(name.strip()))
+                    .findFirst()
+                    .orElseThrow(() -> new RequestValidationException(
+                            "unknown field [%s], pick from %s".formatted(name.strip(), Arrays.stream(Field.values())
+                                    .map(Field::jsonName)
+                                    .collect(Collectors.joining(", "))))));
+        }
+        if (parsed.isEmpty()) {
+            throw new RequestValidationException("fields must name at least one field");
+        }
+        return parsed.equals(ALL.fields) ? ALL : new MemberFields(parsed, EnumSet.noneOf(Column.class));
+    }
+
+    // the same fields written, with a column the caller reads itself selected too
+    MemberFields requiring(Column column) {
+        if (columns.contains(column)) {
+            return this;
+        }
+        Set<Column> required = EnumSet.copyOf(columns);
+        required.add(column);
+        return new MemberFields(fields, required);
+    }
+
+    boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    boolean selects(Column column) {
+        return positions[column.ordinal()] != 0;
+    }
+
+    int position(Column column) {
+        int position = positions[column.ordinal()];
+        if (position == 0) {
+            throw new IllegalStateException(column + " is not selected");
+        }
+        return position;
+    }
+
+    String selectList() {
+        return selectList;
+    }
+
+    // the select list as entity paths, "m.id, m.name"
+    String selectList(String alias) {
+        return columns.stream()
+                .map(column -> alias + "." + column.name)
+                .collect(Collectors.joining(", "));
+    }
+
+    // tells representations apart in ETags, empty for every field
+    String key() {
+        if (fields.equals(ALL.fields)) {
+            return "";
+        }
+        return fields.stream()
+                .map(Field::jsonName)
+                .collect(Collectors.joining("."));
+    }
+}
@@ -0,0 +1,25 @@
+package com.backend.member;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("api/v1/admin/members")
+public class MemberImportController {
+
+    private final MemberImportService memberImportService;
+
+    public MemberImportController(MemberImportService memberImportService) {
+        this.memberImportService = memberImportService;
+    }
+
+    // the request body is read as it arrives, never buffered whole
+    @PostMapping(value = "import", consumes = "text/csv")
+    public MemberImportResult importMembers(InputStream csv) throws IOException {
+        return memberImportService.importMembers(csv);
+    }
+}
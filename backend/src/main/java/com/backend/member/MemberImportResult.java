@@ -0,0 +1,12 @@
+package com.backend.member;
+
+import java.util.List;
+
+public record MemberImportResult(
+        int rows,
+        int imported,
+        int rejected,
+        // first rejections only, index is the line in the file
+        List<MemberBatchResult> rejections
+) {
+}
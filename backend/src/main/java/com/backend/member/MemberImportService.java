@@ -0,0 +1,229 @@
+package com.backend.member;
+
+import com.backend.exceptions.RequestValidationException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Service
+// loads member files too large for the batch endpoint through COPY
+public class MemberImportService {
+
+    static final List<String> HEADER = List.of("name", "email", "password", "age", "gender");
+    static final int CHUNK_SIZE = 1000;
+
+    private final MemberJdbcDataAccessService memberDao;
+    private final PasswordEncoder passwordEncoder;
+    private final Executor hashExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxReportedRejections;
+
+    // the bare bcrypt on the import's own threads, never the login pool
+    public MemberImportService(MemberJdbcDataAccessService memberDao,
+                               @Qualifier("bcryptPasswordEncoder") PasswordEncoder passwordEncoder,
+                               @Qualifier("importHashExecutor") Executor hashExecutor,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${member.import.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.memberDao = memberDao;
+        this.passwordEncoder = passwordEncoder;
+        this.hashExecutor = hashExecutor;
+        this.eventPublisher = eventPublisher;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    /**
+     * Imports a CSV of {@code name,email,password,age,gender} with plaintext
+     * passwords. Invalid rows and emails that are already taken are reported
+     * by line, everything else is inserted in a transaction per chunk of
+     * {@value #CHUNK_SIZE} rows, so a failure keeps the chunks before it. An
+     * email repeated in a later chunk than its first row is reported as taken.
+     */
+    public MemberImportResult importMembers(InputStream csv) throws IOException {
+        MemberCsvReader reader = new MemberCsvReader(
+                new BufferedReader(new InputStreamReader(csv, UTF_8)));
+        List<String> header = reader.next();
+        if (header == null || !HEADER.equals(header.stream().map(String::strip).map(String::toLowerCase).toList())) {
+            throw new RequestValidationException(
+                    "csv must start with the header %s".formatted(String.join(",", HEADER)));
+        }
+
+        Rejections rejections = new Rejections(maxReportedRejections);
+        int staged = 0;
+        try {
+            // the next chunk is hashed while the previous one is copied in and committed
+            CompletableFuture<List<ImportRow>> pending = null;
+            List<ImportRow> chunk;
+            while (!(chunk = readChunk(reader, rejections)).isEmpty()) {
+                CompletableFuture<List<ImportRow>> hashed = hash(chunk);
+                if (pending != null) {
+                    staged += insert(pending.join(), rejections);
+                }
+                pending = hashed;
+            }
+            if (pending != null) {
+                staged += insert(pending.join(), rejections);
+            }
+        } finally {
+            if (staged > rejections.duplicates) {
+                // brand new emails cannot be cached yet, so none need evicting
+                eventPublisher.publishEvent(new MemberChangedEvent(
+                        MemberChangedEvent.Change.CREATED, null, Set.of()));
+            }
+        }
+
+        rejections.reported.sort(Comparator.comparingInt(MemberBatchResult::index));
+        int imported = staged - rejections.duplicates;
+        return new MemberImportResult(
+                staged + rejections.invalid,
+                imported,
+                rejections.invalid + rejections.duplicates,
+                rejections.reported);
+    }
+
+    private List<ImportRow> readChunk(MemberCsvReader reader, Rejections rejections) throws IOException {
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<String> fields;
+        while (chunk.size() < CHUNK_SIZE && (fields = reader.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            ImportRow row = parse(reader.line(), fields, rejections);
+            if (row != null) {
+                chunk.add(row);
+            }
+        }
+        return chunk;
+    }
+
+    private static ImportRow parse(int line, List<String> fields, Rejections rejections) {
+        String email = fields.size() > 1 ? fields.get(1).strip() : null;
+        if (fields.size() != HEADER.size()) {
+            rejections.add(MemberBatchResult.invalid(line, email,
+                    "expected %s fields but found %s".formatted(HEADER.size(), fields.size())));
+            return null;
+        }
+        String name = fields.get(0).strip();
+        String password = fields.get(2);
+        if (name.isEmpty() || email.isEmpty() || password.isEmpty()) {
+            rejections.add(MemberBatchResult.invalid(line, email,
+                    "name, email, password and age are required"));
+            return null;
+        }
+        int age;
+        try {
+            age = Integer.parseInt(fields.get(3).strip());
+        } catch (NumberFormatException e) {
+            rejections.add(MemberBatchResult.invalid(line, email,
+                    "age [%s] is not a number".formatted(fields.get(3))));
+            return null;
+        }
+        String gender = fields.get(4).strip();
+        if (gender.isEmpty()) {
+            gender = null;
+        } else {
+            try {
+                gender = Gender.valueOf(gender.toUpperCase()).name();
+            } catch (IllegalArgumentException e) {
+                rejections.add(MemberBatchResult.invalid(line, email,
+                        "unknown gender [%s]".formatted(gender)));
+                return null;
+            }
+        }
+        return new ImportRow(line, name, email, password, age, gender);
+    }
+
+    private CompletableFuture<List<ImportRow>> hash(List<ImportRow> rows) {
+        List<CompletableFuture<ImportRow>> hashed = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(
+                        () -> row.withPassword(passwordEncoder.encode(row.password())), hashExecutor))
+                .toList();
+        return CompletableFuture.allOf(hashed.toArray(CompletableFuture[]::new))
+                .thenApply(done -> hashed.stream().map(CompletableFuture::join).toList());
+    }
+
+    // one transaction, its duplicates counted before the next chunk goes in
+    private int insert(List<ImportRow> rows, Rejections rejections) {
+        memberDao.importMemberRows(out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+            write(rows, writer);
+            writer.flush();
+        }, rs -> rejections.add(MemberBatchResult.duplicate(
+                rs.getInt("line"),
+                rs.getString("email"),
+                rs.getBoolean("repeated") ? "email repeated in file" : "Email already taken!")));
+        return rows.size();
+    }
+
+    private static int write(List<ImportRow> rows, Writer writer) throws IOException {
+        for (ImportRow row : rows) {
+            writer.write(Integer.toString(row.line()));
+            writer.write(',');
+            writeQuoted(row.name(), writer);
+            writer.write(',');
+            writeQuoted(row.email(), writer);
+            writer.write(',');
+            writeQuoted(row.password(), writer);
+            writer.write(',');
+            writer.write(Integer.toString(row.age()));
+            writer.write(',');
+            // an unquoted empty field is NULL to COPY
+            if (row.gender() != null) {
+                writeQuoted(row.gender(), writer);
+            }
+            writer.write('\n');
+        }
+        return rows.size();
+    }
+
+    private static void writeQuoted(String value, Writer writer) throws IOException {
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private record ImportRow(int line, String name, String email, String password, int age, String gender) {
+        ImportRow withPassword(String password) {
+            return new ImportRow(line, name, email, password, age, gender);
+        }
+    }
+
+    private static class Rejections {
+        private final int maxReported;
+        private final List<MemberBatchResult> reported = new ArrayList<>();
+        private int invalid;
+        private int duplicates;
+
+        Rejections(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        void add(MemberBatchResult result) {
+            if (result.status() == MemberBatchResult.Status.INVALID) {
+                invalid++;
+            } else {
+                duplicates++;
+            }
+            if (reported.size() < maxReported) {
+                reported.add(result);
+            }
+        }
+    }
+}
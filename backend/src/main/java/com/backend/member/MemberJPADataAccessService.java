@@ -1,19 +1,34 @@
 package com.backend.member;
 
+import com.backend.member.MemberFields.Column;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository("jpa")
 public class MemberJPADataAccessService implements MemberDao {
 
     private final MemberRepository memberRepository;
+    // projections, the select list of a MemberFields is not known up front
+    private final EntityManager entityManager;
 
-    public MemberJPADataAccessService(MemberRepository memberRepository) {
+    public MemberJPADataAccessService(MemberRepository memberRepository, EntityManager entityManager) {
         this.memberRepository = memberRepository;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -22,19 +37,105 @@ public class MemberJPADataAccessService implements MemberDao {
         return page.getContent();
     }
 
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit) {
+        return memberRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0 : afterId, Limit.of(limit));
+    }
+
+    @Override
+    public List<Member> selectAllMembers(MemberFields fields) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT %s FROM Member m ORDER BY m.id".formatted(fields.selectList("m")), Tuple.class);
+        return project(query.setMaxResults(1000), fields);
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit, MemberFields fields) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT %s FROM Member m WHERE m.id > :afterId ORDER BY m.id".formatted(fields.selectList("m")),
+                Tuple.class);
+        return project(query.setParameter("afterId", afterId == null ? 0 : afterId).setMaxResults(limit), fields);
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id, MemberFields fields) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT %s FROM Member m WHERE m.id = :id".formatted(fields.selectList("m")), Tuple.class);
+        return project(query.setParameter("id", id), fields).stream().findFirst();
+    }
+
+    // detached members holding the selected columns, like MemberRowMapper.mapRow
+    private static List<Member> project(TypedQuery<Tuple> query, MemberFields fields) {
+        return query.getResultList().stream()
+                .map(tuple -> {
+                    Member member = new Member();
+                    if (fields.selects(Column.ID)) {
+                        member.setId(tuple.get(fields.position(Column.ID) - 1, Integer.class));
+                    }
+                    if (fields.selects(Column.NAME)) {
+                        member.setName(tuple.get(fields.position(Column.NAME) - 1, String.class));
+                    }
+                    if (fields.selects(Column.EMAIL)) {
+                        member.setEmail(tuple.get(fields.position(Column.EMAIL) - 1, String.class));
+                    }
+                    if (fields.selects(Column.AGE)) {
+                        member.setAge(tuple.get(fields.position(Column.AGE) - 1, Integer.class));
+                    }
+                    if (fields.selects(Column.GENDER)) {
+                        member.setGender(tuple.get(fields.position(Column.GENDER) - 1, Gender.class));
+                    }
+                    if (fields.selects(Column.VERSION)) {
+                        member.setVersion(tuple.get(fields.position(Column.VERSION) - 1, Long.class));
+                    }
+                    return member;
+                })
+                .toList();
+    }
+
     @Override
     public Optional<Member> selectMemberById(Integer id) {
         return memberRepository.findById(id);
     }
 
     @Override
-    public void insertMember(Member member) {
-        memberRepository.save(member);
+    public List<Member> selectMembersByIds(Collection<Integer> ids) {
+        return memberRepository.findAllById(ids);
     }
 
     @Override
-    public void deleteMemberById(Integer id) {
-        memberRepository.deleteById(id);
+    public List<Member> selectMembersByIds(Collection<Integer> ids, MemberFields fields) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT %s FROM Member m WHERE m.id IN :ids".formatted(fields.selectList("m")), Tuple.class);
+        return project(query.setParameter("ids", ids), fields);
+    }
+
+    @Override
+    public Optional<Integer> insertMember(Member member) {
+        return memberRepository.insertIfEmailAbsent(
+                member.getName(),
+                member.getEmail(),
+                member.getPassword(),
+                member.getAge(),
+                member.getGender() == null ? null : member.getGender().name());
+    }
+
+    @Override
+    public Set<String> insertMembers(List<Member> members) {
+        // one statement, saveAll would fail the whole batch on a taken email
+        return Set.copyOf(memberRepository.insertAllIfEmailAbsent(
+                members.stream().map(Member::getName).toArray(String[]::new),
+                members.stream().map(Member::getEmail).toArray(String[]::new),
+                members.stream().map(Member::getPassword).toArray(String[]::new),
+                members.stream().map(Member::getAge).toArray(Integer[]::new),
+                members.stream()
+                        .map(member -> member.getGender() == null ? null : member.getGender().name())
+                        .toArray(String[]::new)));
+    }
+
+    @Override
+    public Optional<String> deleteMemberById(Integer id) {
+        return memberRepository.deleteReturningEmail(id);
     }
 
     @Override
@@ -42,11 +143,62 @@ public class MemberJPADataAccessService implements MemberDao {
         memberRepository.save(member);
     }
 
+    @Override
+    @Transactional
+    public int updateMemberFields(Integer id, MemberUpdateRequest changes, Long expectedVersion) {
+        // one statement like the jdbc backend, the member is never loaded first
+        List<String> assignments = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (changes.name() != null) {
+            assignments.add("m.name = :name");
+            parameters.put("name", changes.name());
+        }
+        if (changes.email() != null) {
+            assignments.add("m.email = :email");
+            parameters.put("email", changes.email());
+        }
+        if (changes.age() != null) {
+            assignments.add("m.age = :age");
+            parameters.put("age", changes.age());
+        }
+        if (changes.gender() != null) {
+            assignments.add("m.gender = :gender");
+            parameters.put("gender", changes.gender());
+        }
+        if (assignments.isEmpty()) {
+            return 0;
+        }
+        assignments.add("m.version = m.version + 1");
+        parameters.put("id", id);
+        String versionCheck = "";
+        if (expectedVersion != null) {
+            versionCheck = " AND m.version = :version";
+            parameters.put("version", expectedVersion);
+        }
+        Query update = entityManager.createQuery("UPDATE Member m SET %s WHERE m.id = :id%s"
+                .formatted(String.join(", ", assignments), versionCheck));
+        parameters.forEach(update::setParameter);
+        int updated = update.executeUpdate();
+        // the session may hold the member as it was read, later reads must not get it back
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    public void updateMemberPassword(String email, String password) {
+        memberRepository.updatePasswordByEmail(email, password);
+    }
+
     @Override
     public boolean existsMemberWithEmail(String email) {
         return memberRepository.existsMemberByEmail(email);
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return memberRepository.findExistingEmails(emails);
+    }
+
     @Override
     public boolean existsMemberWithId(Integer id) {
         return memberRepository.existsMemberById(id);
@@ -1,14 +1,34 @@
 package com.backend.member;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository("jdbc")
 public class MemberJdbcDataAccessService implements MemberDao {
 
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private final JdbcTemplate jdbcTemplate;
     private final MemberRowMapper memberRowMapper;
 
@@ -20,7 +40,7 @@ public class MemberJdbcDataAccessService implements MemberDao {
     @Override
     public List<Member> selectAllMembers() {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version
                 FROM member
                 LIMIT 1000
                 """;
@@ -28,10 +48,263 @@ public class MemberJdbcDataAccessService implements MemberDao {
         return jdbcTemplate.query(sql, memberRowMapper);
     }
 
+    @Override
+    public List<Member> selectAllMembers(MemberFields fields) {
+        var sql = """
+                SELECT %s
+                FROM member
+                ORDER BY id
+                LIMIT 1000
+                """.formatted(fields.selectList());
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> MemberRowMapper.mapRow(rs, fields));
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit, MemberFields fields) {
+        var sql = """
+                SELECT %s
+                FROM member
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """.formatted(fields.selectList());
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> MemberRowMapper.mapRow(rs, fields),
+                afterId == null ? 0 : afterId, limit);
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id, MemberFields fields) {
+        var sql = """
+                SELECT %s
+                FROM member
+                WHERE id = ?
+                """.formatted(fields.selectList());
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> MemberRowMapper.mapRow(rs, fields), id)
+                .stream().findFirst();
+    }
+
+    // row callbacks below receive fields.selectList(), never the password
+
+    void queryMemberRowById(Integer id, MemberFields fields, RowCallbackHandler handler) {
+        var sql = """
+                SELECT %s
+                FROM member
+                WHERE id = ?
+                """.formatted(fields.selectList());
+
+        jdbcTemplate.query(sql, handler, id);
+    }
+
+    // keyset page of a search, see searchQuery
+    void queryMemberRowsMatching(MemberSearch search, MemberSearch.Keyset after, int limit,
+                                 MemberFields fields, RowCallbackHandler handler) {
+        SearchQuery query = searchQuery(search, after, limit, fields);
+        jdbcTemplate.query(query.sql(), handler, query.args().toArray());
+    }
+
+    // a search as sql; each combination of filters is its own statement, planned on its own
+    record SearchQuery(String sql, List<Object> args) {
+    }
+
+    static SearchQuery searchQuery(MemberSearch search, MemberSearch.Keyset after, int limit, MemberFields fields) {
+        List<String> where = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (search.minAge() != null) {
+            where.add("age >= ?");
+            args.add(search.minAge());
+        }
+        if (search.maxAge() != null) {
+            where.add("age <= ?");
+            args.add(search.maxAge());
+        }
+        if (search.gender() != null) {
+            where.add("gender = ?");
+            args.add(search.gender().name());
+        }
+        if (search.namePrefix() != null) {
+            // a range rather than LIKE, so the index is used with a generic plan too
+            where.add("name COLLATE \"C\" >= ?");
+            args.add(search.namePrefix());
+            String end = prefixEnd(search.namePrefix());
+            if (end != null) {
+                where.add("name COLLATE \"C\" < ?");
+                args.add(end);
+            }
+        }
+        MemberSearch.Sort sort = search.sort();
+        String direction = search.descending() ? " DESC" : "";
+        if (after != null) {
+            String operator = search.descending() ? "<" : ">";
+            if (sort == MemberSearch.Sort.ID) {
+                where.add("id " + operator + " ?");
+                args.add(after.id());
+            } else {
+                where.add("(%s, id) %s (?, ?)".formatted(sort.expression, operator));
+                args.add(after.value());
+                args.add(after.id());
+            }
+        }
+        args.add(limit);
+
+        var sql = """
+                SELECT %s
+                FROM member
+                %s
+                ORDER BY %s
+                LIMIT ?
+                """.formatted(
+                fields.selectList(),
+                where.isEmpty() ? "" : "WHERE " + String.join(" AND ", where),
+                sort == MemberSearch.Sort.ID
+                        ? "id" + direction
+                        : sort.expression + direction + ", id" + direction);
+        return new SearchQuery(sql, args);
+    }
+
+    // the first string after every string starting with prefix, in code point order
+    private static String prefixEnd(String prefix) {
+        int last = prefix.codePointBefore(prefix.length());
+        if (last == Character.MAX_CODE_POINT) {
+            return null;
+        }
+        // surrogates are not characters, postgres text never holds them
+        int next = last + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : last + 1;
+        return prefix.substring(0, prefix.length() - Character.charCount(last)) + Character.toString(next);
+    }
+
+    /**
+     * Streams every member row in id order through a server-side cursor,
+     * holding at most {@code fetchSize} rows in memory at a time.
+     */
+    // postgres only uses a cursor for fetchSize outside of autocommit
+    @Transactional(readOnly = true)
+    public void streamMemberRows(int fetchSize, MemberFields fields, RowCallbackHandler handler) {
+        var sql = """
+                SELECT %s
+                FROM member
+                ORDER BY id
+                """.formatted(fields.selectList());
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+
+    public long countMembers() {
+        var sql = """
+                SELECT count(*)
+                FROM member
+                """;
+        return jdbcTemplate.queryForObject(sql, long.class);
+    }
+
+    // every member email through a server-side cursor, see streamMemberRows
+    @Transactional(readOnly = true)
+    public void streamEmails(int fetchSize, Consumer<String> emails) {
+        var sql = """
+                SELECT email
+                FROM member
+                """;
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> emails.accept(rs.getString(1)));
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit) {
+        var sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM member
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """;
+
+        return jdbcTemplate.query(sql, memberRowMapper, afterId == null ? 0 : afterId, limit);
+    }
+
+    /**
+     * Writes the rows of an import into the database.
+     */
+    @FunctionalInterface
+    public interface ImportRowWriter {
+        // CSV rows of (line, name, email, password, age, gender)
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * COPYs the rows into a staging table and merges them into member in one
+     * statement. Rows that lose on member_email_uniq, against an existing
+     * member or an earlier line of the same import, are passed to
+     * {@code rejectedRows} as (line, email, repeated) instead of failing the load.
+     */
+    // the staging table lives on this connection and is dropped on commit
+    @Transactional
+    public void importMemberRows(ImportRowWriter rows, RowCallbackHandler rejectedRows) {
+        var stagingSql = """
+                CREATE TEMPORARY TABLE member_import(
+                    line BIGINT NOT NULL,
+                    name TEXT,
+                    email TEXT,
+                    password TEXT,
+                    age INT,
+                    gender TEXT
+                ) ON COMMIT DROP
+                """;
+        var copySql = """
+                COPY member_import(line, name, email, password, age, gender)
+                FROM STDIN WITH (FORMAT csv)
+                """;
+        var mergeSql = """
+                WITH first_rows AS (
+                    SELECT DISTINCT ON (email) line, name, email, password, age, gender
+                    FROM member_import
+                    ORDER BY email, line
+                ), inserted AS (
+                    INSERT INTO member(name, email, password, age, gender)
+                    SELECT name, email, password, age, COALESCE(gender, 'NA')
+                    FROM first_rows
+                    ORDER BY line
+                    ON CONFLICT ON CONSTRAINT member_email_uniq DO NOTHING
+                    RETURNING email
+                )
+                SELECT s.line, s.email, f.line IS NULL AS repeated
+                FROM member_import s
+                LEFT JOIN first_rows f ON f.line = s.line
+                WHERE f.line IS NULL
+                   OR NOT EXISTS (SELECT 1 FROM inserted i WHERE i.email = s.email)
+                ORDER BY s.line
+                """;
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute(stagingSql);
+            }
+            PGConnection pgConnection = con.unwrap(PGConnection.class);
+            try (OutputStream out = new PGCopyOutputStream(pgConnection, copySql, COPY_BUFFER_SIZE)) {
+                rows.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+        jdbcTemplate.query(mergeSql, rejectedRows);
+    }
+
     @Override
     public Optional<Member> selectMemberById(Integer id) {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version
                 FROM member
                 WHERE id = ?
                 """;
@@ -41,50 +314,163 @@ public class MemberJdbcDataAccessService implements MemberDao {
     }
 
     @Override
-    public void insertMember(Member member) {
+    public List<Member> selectMembersByIds(Collection<Integer> ids) {
+        // one array parameter, a single statement whatever the number of ids
+        var sql = """
+                SELECT id, name, email, password, age, gender, version
+                FROM member
+                WHERE id = ANY(?)
+                """;
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            Array array = con.createArrayOf("integer", ids.toArray());
+            ps.setArray(1, array);
+            return ps;
+        }, memberRowMapper);
+    }
+
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids, MemberFields fields) {
+        var sql = """
+                SELECT %s
+                FROM member
+                WHERE id = ANY(?)
+                """.formatted(fields.selectList());
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", ids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> MemberRowMapper.mapRow(rs, fields));
+    }
+
+    @Override
+    public Optional<Integer> insertMember(Member member) {
+        // one statement, a taken email comes back empty instead of failing
         var sql = """
                 INSERT INTO member(name, email, password, age, gender)
-                VALUES (?,?,?,?,?)
+                VALUES (?,?,?,?,COALESCE(?, 'NA'))
+                ON CONFLICT ON CONSTRAINT member_email_uniq DO NOTHING
+                RETURNING id
                 """;
-        jdbcTemplate.update(sql,
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt(1),
                 member.getName(),
                 member.getEmail(),
                 member.getPassword(),
                 member.getAge(),
-                member.getGender().name()
-        );
+                member.getGender() == null ? null : member.getGender().name()
+        ).stream().findFirst();
+    }
+
+    @Override
+    public Set<String> insertMembers(List<Member> members) {
+        // one statement over column arrays; a taken email, from a concurrent
+        // registration or one the existence check missed, skips its row
+        var sql = """
+                INSERT INTO member(name, email, password, age, gender)
+                SELECT name, email, password, age, COALESCE(gender, 'NA')
+                FROM unnest(?, ?, ?, ?, ?) AS batch(name, email, password, age, gender)
+                ON CONFLICT ON CONSTRAINT member_email_uniq DO NOTHING
+                RETURNING email
+                """;
+
+        return new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("text", members.stream().map(Member::getName).toArray()));
+            ps.setArray(2, con.createArrayOf("text", members.stream().map(Member::getEmail).toArray()));
+            ps.setArray(3, con.createArrayOf("text", members.stream().map(Member::getPassword).toArray()));
+            ps.setArray(4, con.createArrayOf("integer", members.stream().map(Member::getAge).toArray()));
+            ps.setArray(5, con.createArrayOf("text", members.stream()
+                    .map(member -> member.getGender() == null ? null : member.getGender().name())
+                    .toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1)));
     }
 
     @Override
-    public void deleteMemberById(Integer id) {
+    public Optional<String> deleteMemberById(Integer id) {
         var sql = """
                 DELETE
                 FROM member
                 WHERE id = ?
+                RETURNING email
                 """;
-        jdbcTemplate.update(sql, id);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getString(1), id)
+                .stream().findFirst();
     }
 
     @Override
     public void updateMember(Member member) {
-        if(member.getName() != null){
-            String query = "Update member SET name = ? WHERE id = ?";
-            jdbcTemplate.update(query,
-                    member.getName(),
-                    member.getId());
+        var sql = """
+                UPDATE member
+                SET name = ?, email = ?, age = ?, gender = ?, version = version + 1
+                WHERE id = ? AND version = ?
+                """;
+        int updated = jdbcTemplate.update(sql,
+                member.getName(),
+                member.getEmail(),
+                member.getAge(),
+                member.getGender() == null ? null : member.getGender().name(),
+                member.getId(),
+                member.getVersion()
+        );
+        // what hibernate throws for a stale @Version on the jpa side
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException(
+                    "member [%s] at version [%s] was changed or deleted".formatted(
+                            member.getId(), member.getVersion()));
+        }
+    }
+
+    @Override
+    public int updateMemberFields(Integer id, MemberUpdateRequest changes, Long expectedVersion) {
+        // one statement, so the changed columns are written together or not at all
+        List<String> columns = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (changes.name() != null) {
+            columns.add("name = ?");
+            args.add(changes.name());
+        }
+        if (changes.email() != null) {
+            columns.add("email = ?");
+            args.add(changes.email());
         }
-        if(member.getAge() == 0){
-            String query = "Update member SET age = ? WHERE id = ?";
-            jdbcTemplate.update(query,
-                    member.getAge(),
-                    member.getId());
+        if (changes.age() != null) {
+            columns.add("age = ?");
+            args.add(changes.age());
         }
-        if(member.getEmail() != null){
-            String query = "Update member SET email = ? WHERE id = ?";
-            jdbcTemplate.update(query,
-                    member.getEmail(),
-                    member.getId());
+        if (changes.gender() != null) {
+            columns.add("gender = ?");
+            args.add(changes.gender().name());
         }
+        if (columns.isEmpty()) {
+            return 0;
+        }
+        columns.add("version = version + 1");
+        args.add(id);
+        String versionCheck = "";
+        if (expectedVersion != null) {
+            versionCheck = " AND version = ?";
+            args.add(expectedVersion);
+        }
+        var sql = """
+                UPDATE member
+                SET %s
+                WHERE id = ?%s
+                """.formatted(String.join(", ", columns), versionCheck);
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+
+    // leaves the version alone, the password is not part of what clients see
+    @Override
+    public void updateMemberPassword(String email, String password) {
+        var sql = """
+                UPDATE member
+                SET password = ?
+                WHERE email = ?
+                """;
+        jdbcTemplate.update(sql, password, email);
     }
 
     @Override
@@ -98,6 +484,23 @@ public class MemberJdbcDataAccessService implements MemberDao {
         return count > 0;
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        var sql = """
+                SELECT email
+                FROM member
+                WHERE email = ANY(?)
+                """;
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            Array array = con.createArrayOf("text", emails.toArray());
+            ps.setArray(1, array);
+            return ps;
+        }, (RowCallbackHandler) rs -> existing.add(rs.getString(1)));
+        return existing;
+    }
+
     @Override
     public boolean existsMemberWithId(Integer id) {
         var sql = """
@@ -112,7 +515,7 @@ public class MemberJdbcDataAccessService implements MemberDao {
     @Override
     public Optional<Member> selectUserByEmail(String email) {
         var sql = """
-                SELECT id, name, email, password, age, gender
+                SELECT id, name, email, password, age, gender, version
                 FROM member
                 WHERE email = ?
                 """;
@@ -0,0 +1,245 @@
+package com.backend.member;
+
+import com.backend.exceptions.RequestValidationException;
+import com.backend.exceptions.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+@Service
+// member reads rendered to json bytes, selecting only the columns of the fields
+// asked for; lists go through the MemberDao, searches straight from the result set
+public class MemberJsonService {
+
+    private final MemberDao memberDao;
+    private final MemberJdbcDataAccessService jdbcDao;
+    private final MemberJsonWriter memberJsonWriter;
+    private final JsonFactory jsonFactory;
+    // single members are read through it when on, see getMemberJson
+    private final boolean nearCacheEnabled;
+
+    public MemberJsonService(MemberDao memberDao,
+                             MemberJdbcDataAccessService jdbcDao,
+                             MemberJsonWriter memberJsonWriter,
+                             ObjectMapper objectMapper,
+                             MemberDaoProperties properties) {
+        this.memberDao = memberDao;
+        this.jdbcDao = jdbcDao;
+        this.memberJsonWriter = memberJsonWriter;
+        this.jsonFactory = objectMapper.getFactory();
+        this.nearCacheEnabled = properties.nearCache().enabled();
+    }
+
+    byte[] getAllMembersJson(MemberFields fields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartArray();
+            // with the id even when not asked for, members from the MemberDao always have one
+            for (Member member : memberDao.selectAllMembers(fields.requiring(MemberFields.Column.ID))) {
+                memberJsonWriter.writeMember(member, generator, fields);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A MemberPage as json: up to {@code limit} members after the cursor and
+     * the cursor of the next page, null on the last one.
+     */
+    byte[] getMembersPageJson(String after, int limit, MemberFields fields) {
+        checkLimit(limit);
+        Integer afterId = MemberCursor.decode(after);
+        // the cursor is the last id, selected even when not asked for
+        MemberFields selected = fields.requiring(MemberFields.Column.ID);
+        // one more than a page, it tells whether another one follows
+        List<Member> members = memberDao.selectMembersAfter(afterId, limit + 1, selected);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("members");
+            for (Member member : members.subList(0, Math.min(limit, members.size()))) {
+                memberJsonWriter.writeMember(member, generator, selected);
+            }
+            generator.writeEndArray();
+            generator.writeFieldName("next");
+            if (members.size() > limit) {
+                generator.writeString(MemberCursor.encode(members.get(limit - 1).getId()));
+            } else {
+                generator.writeNull();
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A page of search results as a MemberPage. Its cursor carries the sort
+     * and is only good for the same search.
+     */
+    byte[] searchMembersJson(MemberSearch search, String after, int limit, MemberFields fields) {
+        checkLimit(limit);
+        MemberSearch.Sort sort = search.sort();
+        MemberSearch.Keyset keyset = MemberCursor.decode(after, sort);
+        // the cursor is the last row's sort value and id, selected even when not asked for
+        MemberFields selected = fields.requiring(MemberFields.Column.ID).requiring(sort.column);
+        int id = selected.position(MemberFields.Column.ID);
+        int value = selected.position(sort.column);
+        return writePage(limit, selected,
+                handler -> jdbcDao.queryMemberRowsMatching(search, keyset, limit + 1, selected, handler),
+                rs -> MemberCursor.encode(sort, sort.read(rs, value), rs.getInt(id)));
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MemberService.MAX_PAGE_SIZE) {
+            throw new RequestValidationException(
+                    "limit must be between 1 and %s".formatted(MemberService.MAX_PAGE_SIZE));
+        }
+    }
+
+    // the next page's cursor, read from the last row of this one
+    private interface CursorReader {
+        String read(ResultSet rs) throws SQLException;
+    }
+
+    // query is asked for limit + 1 rows, the extra one tells whether another page follows
+    private byte[] writePage(int limit, MemberFields selected,
+                             Consumer<RowCallbackHandler> query, CursorReader cursor) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("members");
+            int[] rows = {0};
+            String[] next = {null};
+            query.accept(rs -> {
+                if (++rows[0] <= limit) {
+                    write(rs, generator, selected);
+                }
+                if (rows[0] == limit) {
+                    next[0] = cursor.read(rs);
+                }
+            });
+            generator.writeEndArray();
+            generator.writeFieldName("next");
+            if (rows[0] > limit) {
+                generator.writeString(next[0]);
+            } else {
+                generator.writeNull();
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A MemberLookup as json, see MemberService.getMembersByIds. Members are
+     * read through the MemberDao with only the columns of fields, and so from
+     * the near cache where they are in it.
+     */
+    byte[] getMembersByIdsJson(List<Integer> ids, MemberFields fields) {
+        Set<Integer> requested = MemberService.lookupIds(ids);
+        // the id matches members to the ids asked for, selected even when not asked for
+        Map<Integer, Member> found = memberDao.selectMembersByIds(requested, fields.requiring(MemberFields.Column.ID))
+                .stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * found.size() + 64);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("members");
+            for (Integer id : requested) {
+                Member member = found.get(id);
+                if (member != null) {
+                    memberJsonWriter.writeMember(member, generator, fields);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("missing");
+            for (Integer id : requested) {
+                if (!found.containsKey(id)) {
+                    generator.writeNumber(id);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A member as json with its version. When {@code notModified} accepts the
+     * member's version the body is left null and never written.
+     */
+    VersionedJson getMemberJson(Integer id, MemberFields fields, LongPredicate notModified) {
+        // the version is the ETag, selected even when not asked for
+        MemberFields selected = fields.requiring(MemberFields.Column.VERSION);
+        if (nearCacheEnabled) {
+            // hot profiles come from the near cache, password-free; a miss
+            // loads every column but the password once for all field sets
+            Member member = memberDao.selectMemberById(id, selected)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "member with id [%s] not found".formatted(id)));
+            if (notModified.test(member.getVersion())) {
+                return new VersionedJson(member.getVersion(), null);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+                memberJsonWriter.writeMember(member, generator, fields);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new VersionedJson(member.getVersion(), out.toByteArray());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        long[] version = {-1};
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            jdbcDao.queryMemberRowById(id, selected, rs -> {
+                version[0] = memberJsonWriter.readVersion(rs, selected);
+                if (!notModified.test(version[0])) {
+                    write(rs, generator, selected);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (version[0] < 0) {
+            throw new ResourceNotFoundException(
+                    "member with id [%s] not found".formatted(id));
+        }
+        return new VersionedJson(version[0], out.size() == 0 ? null : out.toByteArray());
+    }
+
+    // body is null when the caller already has this version
+    public record VersionedJson(long version, byte[] body) {
+    }
+
+    private void write(ResultSet rs, JsonGenerator generator, MemberFields fields) throws SQLException {
+        try {
+            memberJsonWriter.writeRow(rs, generator, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.backend.member;
+
+import com.backend.member.MemberFields.Column;
+import com.backend.member.MemberFields.Field;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+// writes a member row as MemberDTO json, without building Member or MemberDTO
+public class MemberJsonWriter {
+
+    // field names in MemberDTO component order, escaped once
+    private static final SerializableString ID_FIELD = new SerializedString("id");
+    private static final SerializableString NAME_FIELD = new SerializedString("name");
+    private static final SerializableString EMAIL_FIELD = new SerializedString("email");
+    private static final SerializableString AGE_FIELD = new SerializedString("age");
+    private static final SerializableString GENDER_FIELD = new SerializedString("gender");
+    private static final SerializableString ROLES_FIELD = new SerializedString("roles");
+    private static final SerializableString USERNAME_FIELD = new SerializedString("username");
+    private static final SerializableString VERSION_FIELD = new SerializedString("version");
+    private static final SerializableString DEFAULT_ROLE = new SerializedString(Member.DEFAULT_ROLE);
+
+    // a row of MemberFields.ALL
+    public void writeRow(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        writeRow(rs, generator, MemberFields.ALL);
+    }
+
+    // a row selected with fields.selectList(), only those fields are written
+    void writeRow(ResultSet rs, JsonGenerator generator, MemberFields fields) throws SQLException, IOException {
+        generator.writeStartObject();
+        if (fields.includes(Field.ID)) {
+            generator.writeFieldName(ID_FIELD);
+            generator.writeNumber(rs.getInt(fields.position(Column.ID)));
+        }
+        if (fields.includes(Field.NAME)) {
+            generator.writeFieldName(NAME_FIELD);
+            generator.writeString(rs.getString(fields.position(Column.NAME)));
+        }
+        String email = fields.includes(Field.EMAIL) || fields.includes(Field.USERNAME)
+                ? rs.getString(fields.position(Column.EMAIL))
+                : null;
+        if (fields.includes(Field.EMAIL)) {
+            generator.writeFieldName(EMAIL_FIELD);
+            generator.writeString(email);
+        }
+        if (fields.includes(Field.AGE)) {
+            generator.writeFieldName(AGE_FIELD);
+            int age = rs.getInt(fields.position(Column.AGE));
+            if (rs.wasNull()) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(age);
+            }
+        }
+        if (fields.includes(Field.GENDER)) {
+            generator.writeFieldName(GENDER_FIELD);
+            // stored as the enum name, same as Jackson writes Gender
+            generator.writeString(rs.getString(fields.position(Column.GENDER)));
+        }
+        writeRoles(generator, fields);
+        if (fields.includes(Field.USERNAME)) {
+            // username is the email, see Member.getUsername
+            generator.writeFieldName(USERNAME_FIELD);
+            generator.writeString(email);
+        }
+        if (fields.includes(Field.VERSION)) {
+            generator.writeFieldName(VERSION_FIELD);
+            generator.writeNumber(rs.getLong(fields.position(Column.VERSION)));
+        }
+        generator.writeEndObject();
+    }
+
+    // the same json from a member read through the MemberDao, holding at least the columns of fields
+    void writeMember(Member member, JsonGenerator generator, MemberFields fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.includes(Field.ID)) {
+            generator.writeFieldName(ID_FIELD);
+            generator.writeNumber(member.getId());
+        }
+        if (fields.includes(Field.NAME)) {
+            generator.writeFieldName(NAME_FIELD);
+            generator.writeString(member.getName());
+        }
+        if (fields.includes(Field.EMAIL)) {
+            generator.writeFieldName(EMAIL_FIELD);
+            generator.writeString(member.getEmail());
+        }
+        if (fields.includes(Field.AGE)) {
+            generator.writeFieldName(AGE_FIELD);
+            if (member.getAge() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(member.getAge());
+            }
+        }
+        if (fields.includes(Field.GENDER)) {
+            generator.writeFieldName(GENDER_FIELD);
+            generator.writeString(member.getGender() == null ? null : member.getGender().name());
+        }
+        writeRoles(generator, fields);
+        if (fields.includes(Field.USERNAME)) {
+            generator.writeFieldName(USERNAME_FIELD);
+            generator.writeString(member.getEmail());
+        }
+        if (fields.includes(Field.VERSION)) {
+            generator.writeFieldName(VERSION_FIELD);
+            generator.writeNumber(member.getVersion());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeRoles(JsonGenerator generator, MemberFields fields) throws IOException {
+        if (fields.includes(Field.ROLES)) {
+            generator.writeFieldName(ROLES_FIELD);
+            generator.writeStartArray();
+            generator.writeString(DEFAULT_ROLE);
+            generator.writeEndArray();
+        }
+    }
+
+    // the row's version, the ETag of the member, read without writing anything
+    long readVersion(ResultSet rs, MemberFields fields) throws SQLException {
+        return rs.getLong(fields.position(Column.VERSION));
+    }
+}
@@ -0,0 +1,50 @@
+package com.backend.member;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This node's copy of member_list_version, the counter a trigger bumps on
+ * every write to member. It is re-read after each change made through
+ * MemberService and on a fixed poll, which catches writes from anywhere
+ * else; list polls compare against it without touching the database.
+ */
+@Component
+public class MemberListVersion {
+
+    private final JdbcTemplate jdbcTemplate;
+    // -1 until first read
+    private final AtomicLong version = new AtomicLong(-1);
+
+    public MemberListVersion(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long current() {
+        long current = version.get();
+        return current < 0 ? refresh() : current;
+    }
+
+    // a write through MemberService has committed, its bump is visible now
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        refresh();
+    }
+
+    // bounds how long a write bypassing MemberService goes unnoticed
+    @Scheduled(fixedDelayString = "${member.list-version.poll-interval:PT5S}")
+    public void poll() {
+        refresh();
+    }
+
+    public long refresh() {
+        Long read = jdbcTemplate.queryForObject(
+                "SELECT version FROM member_list_version", Long.class);
+        // reads may finish out of order, never step back
+        return version.accumulateAndGet(read, Math::max);
+    }
+}
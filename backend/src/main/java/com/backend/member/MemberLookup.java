@@ -0,0 +1,11 @@
+package com.backend.member;
+
+import java.util.List;
+
+public record MemberLookup(
+        // in the order the ids were asked for
+        List<MemberDTO> members,
+        // ids asked for that belong to no member
+        List<Integer> missing
+) {
+}
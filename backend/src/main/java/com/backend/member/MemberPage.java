@@ -0,0 +1,10 @@
+package com.backend.member;
+
+import java.util.List;
+
+public record MemberPage(
+        List<MemberDTO> members,
+        // opaque cursor for the following page, null on the last page
+        String next
+) {
+}
@@ -1,13 +1,60 @@
 package com.backend.member;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 //@Transactional
 public interface MemberRepository extends JpaRepository<Member, Integer> {
     boolean existsMemberByEmail(String email);
     boolean existsMemberById(Integer id);
+    @Query("SELECT m.email FROM Member m WHERE m.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
     Optional<Member> findUserByEmail(String email);
+    @Transactional
+    @Modifying
+    @Query("UPDATE Member m SET m.password = :password WHERE m.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+    List<Member> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
+    // one statement, a taken email comes back empty instead of failing;
+    // the casts type the parameters when they are bound as null
+    @Transactional
+    @Query(value = """
+            INSERT INTO member(name, email, password, age, gender)
+            VALUES (:name, :email, :password, :age, COALESCE(CAST(:gender AS TEXT), 'NA'))
+            ON CONFLICT ON CONSTRAINT member_email_uniq DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<Integer> insertIfEmailAbsent(@Param("name") String name,
+                                          @Param("email") String email,
+                                          @Param("password") String password,
+                                          @Param("age") Integer age,
+                                          @Param("gender") String gender);
+    // the same for a batch, one row per array index; the inserted emails come back
+    @Transactional
+    @Query(value = """
+            INSERT INTO member(name, email, password, age, gender)
+            SELECT name, email, password, age, COALESCE(gender, 'NA')
+            FROM unnest(CAST(:names AS TEXT[]), CAST(:emails AS TEXT[]), CAST(:passwords AS TEXT[]),
+                        CAST(:ages AS INT[]), CAST(:genders AS TEXT[]))
+                AS batch(name, email, password, age, gender)
+            ON CONFLICT ON CONSTRAINT member_email_uniq DO NOTHING
+            RETURNING email
+            """, nativeQuery = true)
+    List<String> insertAllIfEmailAbsent(@Param("names") String[] names,
+                                        @Param("emails") String[] emails,
+                                        @Param("passwords") String[] passwords,
+                                        @Param("ages") Integer[] ages,
+                                        @Param("genders") String[] genders);
+    @Transactional
+    @Query(value = "DELETE FROM member WHERE id = :id RETURNING email", nativeQuery = true)
+    Optional<String> deleteReturningEmail(@Param("id") Integer id);
 }
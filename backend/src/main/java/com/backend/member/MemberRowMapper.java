@@ -1,5 +1,6 @@
 package com.backend.member;
 
+import com.backend.member.MemberFields.Column;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
@@ -11,7 +12,7 @@ public class MemberRowMapper implements RowMapper {
 
     @Override
     public Member mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return new Member(
+        Member member = new Member(
                 rs.getInt("id"),
                 rs.getString("name"),
                 rs.getString("email"),
@@ -19,5 +20,33 @@ public class MemberRowMapper implements RowMapper {
                 rs.getInt("age"),
                 Gender.valueOf(rs.getString("gender"))
         );
+        member.setVersion(rs.getLong("version"));
+        return member;
+    }
+
+    // a row selected with fields.selectList(); what is not selected, the password always, stays null
+    static Member mapRow(ResultSet rs, MemberFields fields) throws SQLException {
+        Member member = new Member();
+        if (fields.selects(Column.ID)) {
+            member.setId(rs.getInt(fields.position(Column.ID)));
+        }
+        if (fields.selects(Column.NAME)) {
+            member.setName(rs.getString(fields.position(Column.NAME)));
+        }
+        if (fields.selects(Column.EMAIL)) {
+            member.setEmail(rs.getString(fields.position(Column.EMAIL)));
+        }
+        if (fields.selects(Column.AGE)) {
+            int age = rs.getInt(fields.position(Column.AGE));
+            member.setAge(rs.wasNull() ? null : age);
+        }
+        if (fields.selects(Column.GENDER)) {
+            String gender = rs.getString(fields.position(Column.GENDER));
+            member.setGender(gender == null ? null : Gender.valueOf(gender));
+        }
+        if (fields.selects(Column.VERSION)) {
+            member.setVersion(rs.getLong(fields.position(Column.VERSION)));
+        }
+        return member;
     }
 }
@@ -0,0 +1,111 @@
+package com.backend.member;
+
+import com.backend.exceptions.RequestValidationException;
+import com.backend.member.MemberFields.Column;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * A member search: optional filters on age range, gender and name prefix,
+ * sorted on one whitelisted column with the id breaking ties. That pair is
+ * also the keyset a page continues after. Every combination has an index
+ * to be answered from, see V5__Member_Search_Indexes.sql.
+ */
+record MemberSearch(Integer minAge,
+                    Integer maxAge,
+                    Gender gender,
+                    String namePrefix,
+                    Sort sort,
+                    boolean descending) {
+
+    enum Sort {
+        ID(Column.ID, "id"),
+        // code point order, the order of the name indexes; a prefix is a range in it
+        NAME(Column.NAME, "name COLLATE \"C\""),
+        AGE(Column.AGE, "age");
+
+        final Column column;
+        final String expression;
+
+        Sort(Column column, String expression) {
+            this.column = column;
+            this.expression = expression;
+        }
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        // the sort value of the current row, selected at position
+        Object read(ResultSet rs, int position) throws SQLException {
+            return this == NAME ? rs.getString(position) : rs.getInt(position);
+        }
+
+        // the sort value as it was written into a cursor
+        Object parse(String value) {
+            return this == NAME ? value : Integer.valueOf(value);
+        }
+    }
+
+    // the sort value and id of the last row of the previous page
+    record Keyset(Object value, Integer id) {
+    }
+
+    /**
+     * The search of the request parameters; blank ones filter nothing. The
+     * sort is a column, optionally followed by {@code ,asc} or {@code ,desc}.
+     */
+    static MemberSearch parse(Integer minAge, Integer maxAge, String gender, String namePrefix, String sort) {
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new RequestValidationException(
+                    "minAge [%s] is greater than maxAge [%s]".formatted(minAge, maxAge));
+        }
+        String[] order = sort == null || sort.isBlank() ? new String[]{"id"} : sort.split(",", -1);
+        if (order.length > 2) {
+            throw new RequestValidationException("invalid sort [%s]".formatted(sort));
+        }
+        boolean descending = false;
+        if (order.length == 2) {
+            String direction = order[1].strip().toLowerCase(Locale.ROOT);
+            if (!direction.equals("asc") && !direction.equals("desc")) {
+                throw new RequestValidationException(
+                        "invalid sort direction [%s], pick from asc, desc".formatted(order[1].strip()));
+            }
+            descending = direction.equals("desc");
+        }
+        return new MemberSearch(
+                minAge,
+                maxAge,
+                parseGender(gender),
+                namePrefix == null || namePrefix.isEmpty() ? null : namePrefix,
+                parseSort(order[0].strip()),
+                descending);
+    }
+
+    private static Gender parseGender(String gender) {
+        if (gender == null || gender.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(Gender.values())
+                .filter(value -> value.name().equalsIgnoreCase(gender.strip()))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException(
+                        "unknown gender [%s], pick from %s".formatted(gender.strip(), Arrays.stream(Gender.values())
+                                .map(Gender::name)
+                                .collect(Collectors.joining(", ")))));
+    }
+
+    private static Sort parseSort(String sort) {
+        return Arrays.stream(Sort.values())
+                .filter(value -> value.key().equals(sort))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException(
+                        "unknown sort [%s], pick from %s".formatted(sort, Arrays.stream(Sort.values())
+                                .map(Sort::key)
+                                .collect(Collectors.joining(", ")))));
+    }
+}
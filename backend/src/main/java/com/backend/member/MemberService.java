@@ -1,26 +1,46 @@
 package com.backend.member;
 
 import com.backend.exceptions.DuplicateResourceException;
+import com.backend.exceptions.PreconditionFailedException;
 import com.backend.exceptions.RequestValidationException;
 import com.backend.exceptions.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class MemberService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 10_000;
+
     private final MemberDao memberDao;
     private final PasswordEncoder passwordEncoder;
     private final MemberDTOMapper memberDTOMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public MemberService(@Qualifier("jpa") MemberDao memberDao, PasswordEncoder passwordEncoder, MemberDTOMapper memberDTOMapper){
+    public MemberService(@Qualifier("memberDao") MemberDao memberDao,
+                         PasswordEncoder passwordEncoder,
+                         MemberDTOMapper memberDTOMapper,
+                         ApplicationEventPublisher eventPublisher){
         this.memberDao = memberDao;
         this.passwordEncoder = passwordEncoder;
         this.memberDTOMapper = memberDTOMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<MemberDTO> getAllMembers(){
@@ -38,13 +58,44 @@ public class MemberService {
                 ));
     }
 
+    /**
+     * The members with the given ids, read with one query and returned in the
+     * order asked for. A repeated id is returned once, ids without a member
+     * are reported as missing.
+     */
+    public MemberLookup getMembersByIds(List<Integer> ids){
+        Set<Integer> requested = lookupIds(ids);
+        Map<Integer, Member> found = memberDao.selectMembersByIds(requested)
+                .stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+        List<MemberDTO> members = new ArrayList<>(found.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : requested) {
+            Member member = found.get(id);
+            if (member == null) {
+                missing.add(id);
+            } else {
+                members.add(memberDTOMapper.apply(member));
+            }
+        }
+        return new MemberLookup(members, missing);
+    }
+
+    // the ids of a lookup without repeats, in the order asked for
+    static Set<Integer> lookupIds(List<Integer> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_PAGE_SIZE) {
+            throw new RequestValidationException(
+                    "between 1 and %s ids can be looked up at once".formatted(MAX_PAGE_SIZE));
+        }
+        // contains(null) throws on immutable lists
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new RequestValidationException("ids must not contain blanks");
+        }
+        return new LinkedHashSet<>(ids);
+    }
+
     public void addMember(MemberRegistrationRequest memberRegistrationRequest){
         String email = memberRegistrationRequest.email();
-        //check
-        if(memberDao.existsMemberWithEmail(email)){
-            throw new DuplicateResourceException("Email already taken!");
-        }
-        // else add
         Member newMember = new Member(
                         memberRegistrationRequest.name(),
                         memberRegistrationRequest.email(),
@@ -52,51 +103,168 @@ public class MemberService {
                         memberRegistrationRequest.age(),
                         memberRegistrationRequest.gender()
         );
-        memberDao.insertMember(newMember);
+        // the unique email constraint is the check, concurrent registrations cannot both pass
+        Integer id = memberDao.insertMember(newMember)
+                .orElseThrow(() -> new DuplicateResourceException("Email already taken!"));
+        eventPublisher.publishEvent(new MemberChangedEvent(
+                MemberChangedEvent.Change.CREATED, id, Set.of(email)));
     }
 
-    public void deleteMemberById(Integer id) {
-        if(!memberDao.existsMemberWithId(id)){
-            throw new ResourceNotFoundException("member with id [%s] does not exist".formatted(id));
+    /**
+     * Registers many members at once. Duplicate emails are found with one
+     * query and the rest is inserted as a batch; the result reports every
+     * row of the request.
+     */
+    public List<MemberBatchResult> addMembers(List<MemberRegistrationRequest> requests){
+        if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new RequestValidationException(
+                    "batch size must be between 1 and %s".formatted(MAX_BATCH_SIZE));
+        }
+        MemberBatchResult[] results = new MemberBatchResult[requests.size()];
+
+        // first row wins for an email repeated in the batch
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            MemberRegistrationRequest request = requests.get(i);
+            if (!isComplete(request)) {
+                results[i] = MemberBatchResult.invalid(i, request.email(),
+                        "name, email, password and age are required");
+            } else if (candidates.putIfAbsent(request.email(), i) != null) {
+                results[i] = MemberBatchResult.duplicate(i, request.email(),
+                        "email repeated in batch");
+            }
         }
-        memberDao.deleteMemberById(id);
+
+        Set<String> taken = candidates.isEmpty()
+                ? Set.of()
+                : memberDao.selectExistingEmails(candidates.keySet());
+        List<Integer> accepted = candidates.values().stream()
+                .filter(i -> {
+                    if (taken.contains(requests.get(i).email())) {
+                        results[i] = MemberBatchResult.duplicate(i, requests.get(i).email(),
+                                "Email already taken!");
+                        return false;
+                    }
+                    return true;
+                })
+                .toList();
+
+        // hashing dominates the cost of a batch, spread it over all cores
+        List<Member> members = accepted.parallelStream()
+                .map(requests::get)
+                .map(request -> new Member(
+                        request.name(),
+                        request.email(),
+                        passwordEncoder.encode(request.password()),
+                        request.age(),
+                        request.gender()))
+                .toList();
+        // an email taken since the check above is skipped by the insert
+        Set<String> inserted = members.isEmpty() ? Set.of() : memberDao.insertMembers(members);
+        if (!inserted.isEmpty()) {
+            // one event for the whole batch, the ids are not tracked
+            eventPublisher.publishEvent(new MemberChangedEvent(
+                    MemberChangedEvent.Change.CREATED, null, inserted));
+        }
+        for (Integer i : accepted) {
+            String email = requests.get(i).email();
+            results[i] = inserted.contains(email)
+                    ? MemberBatchResult.created(i, email)
+                    : MemberBatchResult.duplicate(i, email, "Email already taken!");
+        }
+        return Arrays.asList(results);
+    }
+
+    private static boolean isComplete(MemberRegistrationRequest request) {
+        return request.name() != null && !request.name().isBlank()
+                && request.email() != null && !request.email().isBlank()
+                && request.password() != null && !request.password().isEmpty()
+                && request.age() != null;
+    }
+
+    public void deleteMemberById(Integer id) {
+        // one statement, it hands back the email listeners need
+        String email = memberDao.deleteMemberById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "member with id [%s] does not exist".formatted(id)
+                ));
+        eventPublisher.publishEvent(new MemberChangedEvent(
+                MemberChangedEvent.Change.DELETED, id, Set.of(email)));
     }
 
-    public void updateMember(Integer id, MemberUpdateRequest updateRequest) {
+    /**
+     * Applies the changed fields if the member is still at {@code expectedVersion},
+     * or at any version when it is null, and returns the new version.
+     */
+    public long updateMember(Integer id, MemberUpdateRequest updateRequest, Long expectedVersion) {
         Member member = memberDao.selectMemberById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "member with id [%s] not found".formatted(id)
                 ));
-        boolean changes = false;
+        // taken before the write, with open-in-view jpa updates this very instance
+        long version = member.getVersion();
+        String oldEmail = member.getEmail();
+        if (expectedVersion != null && expectedVersion != version) {
+            throw new PreconditionFailedException(
+                    "member with id [%s] has changed, it is at version [%s]".formatted(id, version));
+        }
+        // only fields that differ are sent, everything else stays null
+        String name = null;
         if (updateRequest.name() != null && !updateRequest.name().equals(member.getName())) {
-            member.setName(updateRequest.name());
-            changes = true;
+            name = updateRequest.name();
         }
 
+        Integer age = null;
         if (updateRequest.age() != null && !updateRequest.age().equals(member.getAge())) {
-            member.setAge(updateRequest.age());
-            changes = true;
+            age = updateRequest.age();
         }
 
+        String email = null;
         if (updateRequest.email() != null && !updateRequest.email().equals(member.getEmail())) {
             if (memberDao.existsMemberWithEmail(updateRequest.email())) {
                 throw new DuplicateResourceException(
                         "email already taken"
                 );
             }
-            member.setEmail(updateRequest.email());
-            changes = true;
+            email = updateRequest.email();
         }
 
+        Gender gender = null;
         if (updateRequest.gender() != null && !updateRequest.gender().equals(member.getGender())) {
-            member.setGender(updateRequest.gender());
-            changes = true;
+            gender = updateRequest.gender();
         }
 
-        if (!changes) {
+        if (name == null && age == null && email == null && gender == null) {
             throw new RequestValidationException("no data changes found");
         }
 
-        memberDao.updateMember(member);
+        // written only over the version read above, so no concurrent edit is lost
+        int updated;
+        try {
+            updated = memberDao.updateMemberFields(
+                    id, new MemberUpdateRequest(name, email, age, gender), version);
+        } catch (OptimisticLockingFailureException e) {
+            updated = 0;
+        } catch (DataIntegrityViolationException e) {
+            if (email == null) {
+                throw e;
+            }
+            // the email was taken after the check above
+            throw new DuplicateResourceException("email already taken");
+        }
+        if (updated == 0) {
+            if (!memberDao.existsMemberWithId(id)) {
+                // deleted since it was loaded
+                throw new ResourceNotFoundException(
+                        "member with id [%s] not found".formatted(id)
+                );
+            }
+            throw new PreconditionFailedException(
+                    "member with id [%s] was changed by another request".formatted(id));
+        }
+        eventPublisher.publishEvent(new MemberChangedEvent(
+                MemberChangedEvent.Change.UPDATED, id,
+                Set.copyOf(List.of(oldEmail, email == null ? oldEmail : email))));
+        return version + 1;
     }
 }
\ No newline at end of file
@@ -1,23 +1,80 @@
 package com.backend.member;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
-public class MemberUserDetailsService implements UserDetailsService {
+public class MemberUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final String CACHE_NAME = "memberUserDetails";
 
     private final MemberDao memberDao;
+    // unknown emails are not cached, a new member can log in right away
+    private final Cache<String, UserDetails> userDetailsCache;
 
-    public MemberUserDetailsService(@Qualifier("jpa") MemberDao memberDao){
+    public MemberUserDetailsService(@Qualifier("memberDao") MemberDao memberDao,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${member.user-details-cache.ttl:5m}") Duration ttl,
+                                    @Value("${member.user-details-cache.maximum-size:10000}") long maximumSize){
         this.memberDao = memberDao;
+        this.userDetailsCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", userDetailsCache, cache -> cache.stats().hitRate())
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return memberDao.selectUserByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Username: " + username + " not found."));
+        UserDetails userDetails = userDetailsCache.get(username,
+                email -> memberDao.selectUserByEmail(email).orElse(null));
+        if (userDetails == null) {
+            throw new UsernameNotFoundException("Username: " + username + " not found.");
+        }
+        return userDetails;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        // called by DaoAuthenticationProvider once the password checked out,
+        // the old hash still matches, so other nodes' caches are not wrong meanwhile
+        memberDao.updateMemberPassword(user.getUsername(), newPassword);
+        userDetailsCache.invalidate(user.getUsername());
+        Member member = (Member) user;
+        return new Member(member.getId(), member.getName(), member.getEmail(),
+                newPassword, member.getAge(), member.getGender());
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        // changed or deleted members must not authenticate from stale entries
+        userDetailsCache.invalidateAll(event.emails());
+    }
+
+    // the same for writes on other nodes, which the near cache hears about
+    @EventListener
+    public void onMemberCacheEvicted(MemberCacheEvictedEvent event) {
+        if (event.all()) {
+            userDetailsCache.invalidateAll();
+        } else {
+            userDetailsCache.invalidateAll(event.emails());
+        }
     }
 }
@@ -0,0 +1,374 @@
+package com.backend.member;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of members by id and by email on this node. Every
+ * member write is sent to the other nodes with a PostgreSQL NOTIFY on the
+ * configured channel, MemberCacheListener hands them back to
+ * {@link #onNotification}; the TTL bounds how long a missed one is served.
+ * What it evicts on a notification is published as a MemberCacheEvictedEvent
+ * for the caches above it. Entries are copies, callers may change what they get.
+ * Projected reads are served from a member cached whole, or else from a
+ * password-free profile of every MemberFields column loaded once for them.
+ */
+class NearCacheMemberDao implements MemberDao {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NearCacheMemberDao.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String METRIC_PREFIX = "member.near.cache";
+
+    private final MemberDao delegate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String channel;
+    // when off nothing is cached or sent, reads and writes pass through
+    private final boolean enabled;
+    // unknown ids and emails are not cached, a new member is found right away
+    private final Cache<Integer, Member> byId;
+    private final Cache<String, Member> byEmail;
+    // MemberFields.ALL of members read by projection only, never a password
+    private final Cache<Integer, Member> profiles;
+    // bumped before every eviction, a load that saw it move may be stale
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter sent;
+    private final Counter received;
+
+    NearCacheMemberDao(MemberDao delegate,
+                       JdbcTemplate jdbcTemplate,
+                       ApplicationEventPublisher eventPublisher,
+                       MemberDaoProperties.NearCache settings,
+                       MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.channel = settings.channel();
+        this.enabled = settings.enabled();
+        this.byId = Caffeine.newBuilder()
+                .expireAfterWrite(settings.ttl())
+                .maximumSize(settings.maximumSize())
+                .recordStats()
+                .build();
+        this.byEmail = Caffeine.newBuilder()
+                .expireAfterWrite(settings.ttl())
+                .maximumSize(settings.maximumSize())
+                .recordStats()
+                .build();
+        this.profiles = Caffeine.newBuilder()
+                .expireAfterWrite(settings.ttl())
+                .maximumSize(settings.maximumSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "memberById");
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "memberByEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "memberProfile");
+        this.sent = Counter.builder(METRIC_PREFIX + ".invalidations")
+                .tag("direction", "sent")
+                .register(meterRegistry);
+        this.received = Counter.builder(METRIC_PREFIX + ".invalidations")
+                .tag("direction", "received")
+                .register(meterRegistry);
+    }
+
+    // the NOTIFY payload, well under the 8000 bytes PostgreSQL allows
+    record Invalidation(Integer id, Set<String> emails) {
+        Invalidation {
+            // {"id":1} names no emails
+            emails = emails == null ? Set.of() : emails;
+        }
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        // new members cannot be cached anywhere yet, misses are not kept
+        if (event.change() == MemberChangedEvent.Change.CREATED) {
+            return;
+        }
+        publish(new Invalidation(event.id(), event.emails()));
+    }
+
+    /**
+     * Evicts what a NOTIFY payload names, from this node or another one.
+     */
+    void onNotification(String payload) {
+        received.increment();
+        try {
+            Invalidation invalidation = OBJECT_MAPPER.readValue(payload, Invalidation.class);
+            Set<String> emails = evict(invalidation.id(), invalidation.emails());
+            if (invalidation.id() != null && emails.isEmpty()) {
+                // only the id is known, caches by email cannot tell what to drop
+                eventPublisher.publishEvent(MemberCacheEvictedEvent.everything());
+            } else {
+                eventPublisher.publishEvent(MemberCacheEvictedEvent.of(emails));
+            }
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("unreadable member cache invalidation {}, clearing the cache", payload, e);
+            invalidateAll();
+        }
+    }
+
+    // while LISTEN was down notifications were lost, forget everything
+    void invalidateAll() {
+        invalidations.incrementAndGet();
+        byId.invalidateAll();
+        byEmail.invalidateAll();
+        profiles.invalidateAll();
+        eventPublisher.publishEvent(MemberCacheEvictedEvent.everything());
+    }
+
+    private void publish(Invalidation invalidation) {
+        if (!enabled) {
+            return;
+        }
+        evict(invalidation.id(), invalidation.emails());
+        String payload;
+        try {
+            payload = OBJECT_MAPPER.writeValueAsString(invalidation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        // joins the caller's transaction if there is one, NOTIFY is sent on commit
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload);
+        sent.increment();
+    }
+
+    // every email evicted, those named and that of a member cached by id
+    private Set<String> evict(Integer id, Collection<String> emails) {
+        invalidations.incrementAndGet();
+        Set<String> evicted = new HashSet<>(emails);
+        if (id != null) {
+            Member cached = byId.getIfPresent(id);
+            byId.invalidate(id);
+            profiles.invalidate(id);
+            if (cached != null) {
+                byEmail.invalidate(cached.getEmail());
+                evicted.add(cached.getEmail());
+            }
+        }
+        for (String email : emails) {
+            Member cached = byEmail.getIfPresent(email);
+            byEmail.invalidate(email);
+            if (cached != null) {
+                byId.invalidate(cached.getId());
+                profiles.invalidate(cached.getId());
+            }
+        }
+        return evicted;
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id) {
+        Member cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(Member.copyOf(cached));
+        }
+        long seen = invalidations.get();
+        Optional<Member> loaded = delegate.selectMemberById(id);
+        loaded.ifPresent(member -> cache(member, seen));
+        return loaded;
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id, MemberFields fields) {
+        if (!enabled) {
+            return delegate.selectMemberById(id, fields);
+        }
+        Member cached = byId.getIfPresent(id);
+        if (cached == null) {
+            cached = profiles.getIfPresent(id);
+        }
+        if (cached != null) {
+            return Optional.of(profileOf(cached));
+        }
+        long seen = invalidations.get();
+        Optional<Member> loaded = delegate.selectMemberById(id, MemberFields.ALL);
+        loaded.ifPresent(member -> cacheProfile(member, seen));
+        return loaded;
+    }
+
+    // as the projection by id, misses read with one call for all of them
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids, MemberFields fields) {
+        if (!enabled) {
+            return delegate.selectMembersByIds(ids, fields);
+        }
+        List<Member> members = new ArrayList<>(ids.size());
+        List<Integer> misses = new ArrayList<>();
+        for (Integer id : ids) {
+            Member cached = byId.getIfPresent(id);
+            if (cached == null) {
+                cached = profiles.getIfPresent(id);
+            }
+            if (cached != null) {
+                members.add(profileOf(cached));
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return members;
+        }
+        long seen = invalidations.get();
+        List<Member> loaded = delegate.selectMembersByIds(misses, MemberFields.ALL);
+        loaded.forEach(member -> cacheProfile(member, seen));
+        members.addAll(loaded);
+        return members;
+    }
+
+    private void cacheProfile(Member member, long seen) {
+        profiles.put(member.getId(), profileOf(member));
+        // an eviction since the load started may have come before the put, undo it
+        if (invalidations.get() != seen) {
+            profiles.invalidate(member.getId());
+        }
+    }
+
+    // a copy without the password, what a projection of MemberFields.ALL reads
+    private static Member profileOf(Member member) {
+        Member profile = new Member(member.getId(), member.getName(), member.getEmail(),
+                null, member.getAge(), member.getGender());
+        profile.setVersion(member.getVersion());
+        return profile;
+    }
+
+    @Override
+    public Optional<Member> selectUserByEmail(String email) {
+        Member cached = byEmail.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(Member.copyOf(cached));
+        }
+        long seen = invalidations.get();
+        Optional<Member> loaded = delegate.selectUserByEmail(email);
+        loaded.ifPresent(member -> cache(member, seen));
+        return loaded;
+    }
+
+    // cached members are served from here, the rest with one call for all of them
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids) {
+        List<Member> members = new ArrayList<>(ids.size());
+        List<Integer> misses = new ArrayList<>();
+        for (Integer id : ids) {
+            Member cached = byId.getIfPresent(id);
+            if (cached != null) {
+                members.add(Member.copyOf(cached));
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return members;
+        }
+        long seen = invalidations.get();
+        List<Member> loaded = delegate.selectMembersByIds(misses);
+        loaded.forEach(member -> cache(member, seen));
+        members.addAll(loaded);
+        return members;
+    }
+
+    private void cache(Member member, long seen) {
+        if (!enabled) {
+            return;
+        }
+        Member entry = Member.copyOf(member);
+        byId.put(entry.getId(), entry);
+        byEmail.put(entry.getEmail(), entry);
+        // an eviction since the load started may have come before the put, undo it
+        if (invalidations.get() != seen) {
+            byId.invalidate(entry.getId());
+            byEmail.invalidate(entry.getEmail());
+        }
+    }
+
+    @Override
+    public void updateMember(Member member) {
+        delegate.updateMember(member);
+        evict(member.getId(), Set.of());
+    }
+
+    @Override
+    public int updateMemberFields(Integer id, MemberUpdateRequest changes, Long expectedVersion) {
+        int updated = delegate.updateMemberFields(id, changes, expectedVersion);
+        evict(id, Set.of());
+        return updated;
+    }
+
+    @Override
+    public Optional<String> deleteMemberById(Integer id) {
+        Optional<String> email = delegate.deleteMemberById(id);
+        evict(id, Set.of());
+        return email;
+    }
+
+    @Override
+    public void updateMemberPassword(String email, String password) {
+        delegate.updateMemberPassword(email, password);
+        // not a MemberService write, so no event tells the other nodes
+        publish(new Invalidation(null, Set.of(email)));
+    }
+
+    @Override
+    public List<Member> selectAllMembers() {
+        return delegate.selectAllMembers();
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit) {
+        return delegate.selectMembersAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Member> selectAllMembers(MemberFields fields) {
+        return delegate.selectAllMembers(fields);
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit, MemberFields fields) {
+        return delegate.selectMembersAfter(afterId, limit, fields);
+    }
+
+    @Override
+    public Optional<Integer> insertMember(Member member) {
+        return delegate.insertMember(member);
+    }
+
+    @Override
+    public Set<String> insertMembers(List<Member> members) {
+        return delegate.insertMembers(members);
+    }
+
+    @Override
+    public boolean existsMemberWithEmail(String email) {
+        return delegate.existsMemberWithEmail(email);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return delegate.selectExistingEmails(emails);
+    }
+
+    @Override
+    public boolean existsMemberWithId(Integer id) {
+        return delegate.existsMemberWithId(id);
+    }
+}
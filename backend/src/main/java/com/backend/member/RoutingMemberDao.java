@@ -0,0 +1,203 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends every MemberDao call to the backend configured for that operation
+ * and times it as {@code member.dao} tagged with operation and backend.
+ * Shadowed reads are also replayed on the other backend, see MemberDaoShadow.
+ */
+class RoutingMemberDao implements MemberDao {
+
+    // shadowBackend is null for operations that are not shadowed
+    private record Route(String backend, MemberDao memberDao, Timer timer,
+                         String shadowBackend, MemberDao shadow) {
+    }
+
+    private final Map<String, Route> routes = new HashMap<>();
+    private final MemberDaoShadow shadow;
+
+    RoutingMemberDao(Map<String, MemberDao> backends,
+                     MemberDaoProperties properties,
+                     MeterRegistry meterRegistry) {
+        Set<String> operations = Arrays.stream(MemberDao.class.getMethods())
+                .map(Method::getName)
+                .collect(Collectors.toSet());
+        // a typo in a route would otherwise silently fall back to the default
+        properties.routes().keySet().stream()
+                .filter(operation -> !operations.contains(operation))
+                .findFirst()
+                .ifPresent(operation -> {
+                    throw new IllegalStateException(
+                            "member.dao.routes.%s is not a MemberDao operation".formatted(operation));
+                });
+
+        MemberDaoProperties.Shadow shadowSettings = properties.shadow();
+        shadowSettings.operations().stream()
+                .filter(operation -> !operations.contains(operation))
+                .findFirst()
+                .ifPresent(operation -> {
+                    throw new IllegalStateException(
+                            "member.dao.shadow.operations %s is not a MemberDao operation".formatted(operation));
+                });
+        // a shadowed write would be applied twice, once on each backend
+        shadowSettings.operations().stream()
+                .filter(operation -> !isRead(operation))
+                .findFirst()
+                .ifPresent(operation -> {
+                    throw new IllegalStateException(
+                            "member.dao.shadow.operations %s is not a read".formatted(operation));
+                });
+        this.shadow = new MemberDaoShadow(shadowSettings, meterRegistry);
+
+        for (String operation : operations) {
+            String backend = properties.routes().getOrDefault(operation, properties.defaultBackend());
+            MemberDao memberDao = backends.get(backend);
+            if (memberDao == null) {
+                throw new IllegalStateException("unknown member dao backend [%s] for %s, expected one of %s"
+                        .formatted(backend, operation, backends.keySet()));
+            }
+            Timer timer = Timer.builder("member.dao")
+                    .tag("operation", operation)
+                    .tag("backend", backend)
+                    .register(meterRegistry);
+            String shadowBackend = shadowSettings.operations().contains(operation)
+                    ? backends.keySet().stream().filter(b -> !b.equals(backend)).findFirst().orElse(null)
+                    : null;
+            routes.put(operation, new Route(backend, memberDao, timer,
+                    shadowBackend, shadowBackend == null ? null : backends.get(shadowBackend)));
+        }
+    }
+
+    private static boolean isRead(String operation) {
+        return operation.startsWith("select") || operation.startsWith("exists");
+    }
+
+    private <T> T call(String operation, Function<MemberDao, T> call) {
+        Route route = routes.get(operation);
+        if (route.shadow() == null || !shadow.sample()) {
+            return route.timer().record(() -> call.apply(route.memberDao()));
+        }
+        long start = System.nanoTime();
+        T result = call.apply(route.memberDao());
+        long elapsed = System.nanoTime() - start;
+        route.timer().record(elapsed, TimeUnit.NANOSECONDS);
+        shadow.compare(operation, route.backend(), route.shadowBackend(), result, elapsed,
+                () -> call.apply(route.shadow()));
+        return result;
+    }
+
+    private void run(String operation, Consumer<MemberDao> call) {
+        Route route = routes.get(operation);
+        route.timer().record(() -> call.accept(route.memberDao()));
+    }
+
+    @Override
+    public List<Member> selectAllMembers() {
+        return call("selectAllMembers", MemberDao::selectAllMembers);
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit) {
+        return call("selectMembersAfter", dao -> dao.selectMembersAfter(afterId, limit));
+    }
+
+    @Override
+    public List<Member> selectAllMembers(MemberFields fields) {
+        return call("selectAllMembers", dao -> dao.selectAllMembers(fields));
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit, MemberFields fields) {
+        return call("selectMembersAfter", dao -> dao.selectMembersAfter(afterId, limit, fields));
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id) {
+        return call("selectMemberById", dao -> dao.selectMemberById(id));
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id, MemberFields fields) {
+        return call("selectMemberById", dao -> dao.selectMemberById(id, fields));
+    }
+
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids) {
+        return call("selectMembersByIds", dao -> dao.selectMembersByIds(ids));
+    }
+
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids, MemberFields fields) {
+        return call("selectMembersByIds", dao -> dao.selectMembersByIds(ids, fields));
+    }
+
+    @Override
+    public Optional<Integer> insertMember(Member member) {
+        return call("insertMember", dao -> dao.insertMember(member));
+    }
+
+    @Override
+    public Set<String> insertMembers(List<Member> members) {
+        return call("insertMembers", dao -> dao.insertMembers(members));
+    }
+
+    @Override
+    public Optional<String> deleteMemberById(Integer id) {
+        return call("deleteMemberById", dao -> dao.deleteMemberById(id));
+    }
+
+    @Override
+    public void updateMember(Member member) {
+        run("updateMember", dao -> dao.updateMember(member));
+    }
+
+    @Override
+    public int updateMemberFields(Integer id, MemberUpdateRequest changes, Long expectedVersion) {
+        return call("updateMemberFields", dao -> dao.updateMemberFields(id, changes, expectedVersion));
+    }
+
+    @Override
+    public void updateMemberPassword(String email, String password) {
+        run("updateMemberPassword", dao -> dao.updateMemberPassword(email, password));
+    }
+
+    @Override
+    public boolean existsMemberWithEmail(String email) {
+        return call("existsMemberWithEmail", dao -> dao.existsMemberWithEmail(email));
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return call("selectExistingEmails", dao -> dao.selectExistingEmails(emails));
+    }
+
+    @Override
+    public boolean existsMemberWithId(Integer id) {
+        return call("existsMemberWithId", dao -> dao.existsMemberWithId(id));
+    }
+
+    @Override
+    public Optional<Member> selectUserByEmail(String email) {
+        return call("selectUserByEmail", dao -> dao.selectUserByEmail(email));
+    }
+
+    // picked up by Spring as the bean's destroy method
+    public void shutdown() {
+        shadow.shutdown();
+    }
+}
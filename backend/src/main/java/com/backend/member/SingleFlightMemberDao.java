@@ -0,0 +1,225 @@
+package com.backend.member;
+
+import com.backend.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Lets concurrent lookups of the same member by id or email share one call
+ * to the delegate. The first caller runs it on its own thread, the others
+ * wait up to maxWait for its result or exception and get a copy of the
+ * member. A write detaches the calls in flight, whoever asks after it
+ * starts a new one.
+ */
+class SingleFlightMemberDao implements MemberDao {
+
+    private static final String METRIC_PREFIX = "member.dao.single.flight";
+
+    private final MemberDao delegate;
+    private final MemberDaoProperties.SingleFlight settings;
+    private final ConcurrentMap<Integer, CompletableFuture<Optional<Member>>> byId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Optional<Member>>> byEmail = new ConcurrentHashMap<>();
+    // projections by id and select list, only the same columns can share a call
+    private final ConcurrentMap<String, CompletableFuture<Optional<Member>>> byIdColumns = new ConcurrentHashMap<>();
+
+    private final Calls idCalls;
+    private final Calls emailCalls;
+
+    SingleFlightMemberDao(MemberDao delegate,
+                          MemberDaoProperties.SingleFlight settings,
+                          MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.idCalls = new Calls(meterRegistry, "selectMemberById");
+        this.emailCalls = new Calls(meterRegistry, "selectUserByEmail");
+        Gauge.builder(METRIC_PREFIX + ".in.flight", this,
+                        dao -> dao.byId.size() + dao.byEmail.size() + dao.byIdColumns.size())
+                .register(meterRegistry);
+    }
+
+    // leader calls reached the delegate, coalesced ones were spared
+    private static class Calls {
+        final Counter leader;
+        final Counter coalesced;
+        final Counter timedOut;
+
+        Calls(MeterRegistry meterRegistry, String operation) {
+            this.leader = counter(meterRegistry, operation, "leader");
+            this.coalesced = counter(meterRegistry, operation, "coalesced");
+            this.timedOut = counter(meterRegistry, operation, "timeout");
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String operation, String outcome) {
+            return Counter.builder(METRIC_PREFIX + ".calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id) {
+        if (!settings.enabled()) {
+            return delegate.selectMemberById(id);
+        }
+        return coalesce(byId, id, delegate::selectMemberById, idCalls);
+    }
+
+    @Override
+    public Optional<Member> selectMemberById(Integer id, MemberFields fields) {
+        if (!settings.enabled()) {
+            return delegate.selectMemberById(id, fields);
+        }
+        return coalesce(byIdColumns, id + ":" + fields.selectList(),
+                key -> delegate.selectMemberById(id, fields), idCalls);
+    }
+
+    @Override
+    public Optional<Member> selectUserByEmail(String email) {
+        if (!settings.enabled()) {
+            return delegate.selectUserByEmail(email);
+        }
+        return coalesce(byEmail, email, delegate::selectUserByEmail, emailCalls);
+    }
+
+    private <K> Optional<Member> coalesce(ConcurrentMap<K, CompletableFuture<Optional<Member>>> inFlight,
+                                          K key,
+                                          Function<K, Optional<Member>> load,
+                                          Calls calls) {
+        CompletableFuture<Optional<Member>> call = new CompletableFuture<>();
+        CompletableFuture<Optional<Member>> running = inFlight.putIfAbsent(key, call);
+        if (running == null) {
+            calls.leader.increment();
+            try {
+                Optional<Member> result = load.apply(key);
+                call.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        calls.coalesced.increment();
+        try {
+            // the leader's member may be a managed entity of its own session
+            return running.get(settings.maxWait().toNanos(), TimeUnit.NANOSECONDS)
+                    .map(Member::copyOf);
+        } catch (TimeoutException e) {
+            calls.timedOut.increment();
+            throw new ServiceUnavailableException(
+                    "member lookup is taking too long, try again later", settings.maxWait());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a member lookup", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // the calls keep running for those already waiting, later readers must see the write
+    private void detach() {
+        byId.clear();
+        byEmail.clear();
+        byIdColumns.clear();
+    }
+
+    @Override
+    public void updateMember(Member member) {
+        delegate.updateMember(member);
+        detach();
+    }
+
+    @Override
+    public int updateMemberFields(Integer id, MemberUpdateRequest changes, Long expectedVersion) {
+        int updated = delegate.updateMemberFields(id, changes, expectedVersion);
+        detach();
+        return updated;
+    }
+
+    @Override
+    public Optional<String> deleteMemberById(Integer id) {
+        Optional<String> email = delegate.deleteMemberById(id);
+        detach();
+        return email;
+    }
+
+    @Override
+    public void updateMemberPassword(String email, String password) {
+        delegate.updateMemberPassword(email, password);
+        detach();
+    }
+
+    @Override
+    public List<Member> selectAllMembers() {
+        return delegate.selectAllMembers();
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit) {
+        return delegate.selectMembersAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Member> selectAllMembers(MemberFields fields) {
+        return delegate.selectAllMembers(fields);
+    }
+
+    @Override
+    public List<Member> selectMembersAfter(Integer afterId, int limit, MemberFields fields) {
+        return delegate.selectMembersAfter(afterId, limit, fields);
+    }
+
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids) {
+        return delegate.selectMembersByIds(ids);
+    }
+
+    @Override
+    public List<Member> selectMembersByIds(Collection<Integer> ids, MemberFields fields) {
+        return delegate.selectMembersByIds(ids, fields);
+    }
+
+    @Override
+    public Optional<Integer> insertMember(Member member) {
+        return delegate.insertMember(member);
+    }
+
+    @Override
+    public Set<String> insertMembers(List<Member> members) {
+        return delegate.insertMembers(members);
+    }
+
+    @Override
+    public boolean existsMemberWithEmail(String email) {
+        return delegate.existsMemberWithEmail(email);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return delegate.selectExistingEmails(emails);
+    }
+
+    @Override
+    public boolean existsMemberWithId(Integer id) {
+        return delegate.existsMemberWithId(id);
+    }
+}
@@ -0,0 +1,122 @@
+package com.backend.security;
+
+import com.backend.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a slow password encoder on its own fixed pool. Callers block until
+ * their hash is done, but once the queue is full they are turned away with
+ * a {@link ServiceUnavailableException} instead of piling up on request threads.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String METRIC_PREFIX = "password.encoder";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+    private final Timer encodeWait;
+    private final Timer encodeTime;
+    private final Timer matchesWait;
+    private final Timer matchesTime;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  int threads,
+                                  int queueCapacity,
+                                  Duration retryAfter,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.retryAfter = retryAfter;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-encoder-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder(METRIC_PREFIX + ".queue.size", executor, e -> e.getQueue().size())
+                .description("hashes waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.encodeWait = timer(meterRegistry, "wait", "encode");
+        this.encodeTime = timer(meterRegistry, "hash", "encode");
+        this.matchesWait = timer(meterRegistry, "wait", "matches");
+        this.matchesTime = timer(meterRegistry, "hash", "matches");
+        this.rejected = Counter.builder(METRIC_PREFIX + ".rejected")
+                .register(meterRegistry);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name, String operation) {
+        return Timer.builder(METRIC_PREFIX + "." + name)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeWait, encodeTime, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesWait, matchesTime, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // only parses the hash, cheap enough for the caller's thread
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Timer wait, Timer time, Supplier<T> work) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                wait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return time.record(work);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException(
+                    "password hashing is at capacity, try again later", retryAfter);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // picked up by Spring as the bean's destroy method
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
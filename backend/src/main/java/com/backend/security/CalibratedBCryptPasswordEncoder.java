@@ -0,0 +1,90 @@
+package com.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * BCrypt at a cost picked for the machine it runs on, see {@link #calibrate}.
+ * A hash at a lower cost asks to be re-encoded, so members move up to this
+ * node's cost as they log in. A higher cost is kept: nodes on different
+ * hardware calibrate to different costs, and re-encoding both ways would have
+ * a member's hash flip between them on every login.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Times verifications from {@code minStrength} upwards and keeps the highest
+     * cost whose slowest of {@code samples} checks stays within {@code target}.
+     * Never goes below {@code minStrength}, even on hardware too slow to meet the target.
+     */
+    public static CalibratedBCryptPasswordEncoder calibrate(Duration target,
+                                                            int minStrength,
+                                                            int maxStrength,
+                                                            int samples) {
+        // warms up the JIT on the cheapest cost
+        timeVerifications(new BCryptPasswordEncoder(4), samples, Long.MAX_VALUE);
+
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long slowest = timeVerifications(new BCryptPasswordEncoder(strength), samples, target.toNanos());
+            LOGGER.info("bcrypt cost {} verifies in {} ms at worst", strength, slowest / 1_000_000);
+            if (slowest > target.toNanos()) {
+                break;
+            }
+            chosen = strength;
+        }
+        LOGGER.info("using bcrypt cost {} for a {} ms target", chosen, target.toMillis());
+        return new CalibratedBCryptPasswordEncoder(chosen);
+    }
+
+    // stops early once a check is over the limit, higher costs only get slower
+    private static long timeVerifications(BCryptPasswordEncoder encoder, int samples, long limitNanos) {
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+        long slowest = 0;
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, hash);
+            slowest = Math.max(slowest, System.nanoTime() - start);
+            if (slowest > limitNanos) {
+                break;
+            }
+        }
+        return slowest;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // $2a$10$... , the cost sits between the second and third '$'
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        int end = encodedPassword.indexOf('$', 1);
+        end = end < 0 ? -1 : encodedPassword.indexOf('$', end + 1);
+        if (end < 0) {
+            return false;
+        }
+        try {
+            int cost = Integer.parseInt(encodedPassword.substring(end - 2, end));
+            return cost < strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
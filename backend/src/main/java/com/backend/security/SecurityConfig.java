@@ -1,21 +1,68 @@
 package com.backend.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 public class SecurityConfig {
 
+    // the bare encoder, for bulk work that brings its own threads
+    @Bean
+    public CalibratedBCryptPasswordEncoder bcryptPasswordEncoder(
+            @Value("${security.password-encoder.bcrypt.strength:0}") int strength,
+            @Value("${security.password-encoder.bcrypt.target-time:50ms}") Duration targetTime,
+            @Value("${security.password-encoder.bcrypt.min-strength:10}") int minStrength,
+            @Value("${security.password-encoder.bcrypt.max-strength:16}") int maxStrength,
+            @Value("${security.password-encoder.bcrypt.samples:10}") int samples){
+        // a fixed strength skips the startup benchmark
+        return strength > 0
+                ? new CalibratedBCryptPasswordEncoder(strength)
+                : CalibratedBCryptPasswordEncoder.calibrate(targetTime, minStrength, maxStrength, samples);
+    }
+
+    // bcrypt is kept off the request threads, see BoundedPasswordEncoder
+    @Bean
+    @Primary
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           CalibratedBCryptPasswordEncoder bcrypt,
+                                           @Value("${security.password-encoder.threads:0}") int threads,
+                                           @Value("${security.password-encoder.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password-encoder.retry-after:1s}") Duration retryAfter){
+        return new BoundedPasswordEncoder(
+                bcrypt,
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                queueCapacity,
+                retryAfter,
+                meterRegistry
+        );
+    }
+
+    // hashes imported passwords at the lowest priority and apart from the login
+    // pool above, so a large import cannot queue logins into 503s
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public ExecutorService importHashExecutor(
+            @Value("${security.password-encoder.import-threads:0}") int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-import-");
+        threadFactory.setDaemon(true);
+        threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+        return Executors.newFixedThreadPool(
+                threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 4),
+                threadFactory);
     }
 
     @Bean
@@ -28,12 +75,15 @@ public class SecurityConfig {
     @Bean
     public AuthenticationProvider authenticationProvider(
             UserDetailsService userDetailsService,
+            UserDetailsPasswordService userDetailsPasswordService,
             PasswordEncoder passwordEncoder
     ){
         DaoAuthenticationProvider daoAuthenticationProvider =
                 new DaoAuthenticationProvider();
         daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
         daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        // re-encodes hashes at another cost after a successful login
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return daoAuthenticationProvider;
     }
 }
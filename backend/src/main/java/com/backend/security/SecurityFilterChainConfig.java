@@ -2,19 +2,25 @@ package com.backend.security;
 
 import com.backend.jwt.JWTAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityFilterChainConfig {
@@ -23,6 +29,10 @@ public class SecurityFilterChainConfig {
     private final JWTAuthenticationFilter jwtAuthenticationFilter;
     private final AuthenticationEntryPoint authenticationEntryPoint;
 
+    // members are all ROLE_USER, admins are named in config
+    @Value("#{'${security.admin-emails:}'.split(',')}")
+    private List<String> adminEmails;
+
     public SecurityFilterChainConfig(AuthenticationProvider authenticationProvider,
                                      JWTAuthenticationFilter jwtAuthenticationFilter,
                                      @Qualifier("delegatedAuthEntryPoint") AuthenticationEntryPoint authenticationEntryPoint) {
@@ -42,6 +52,9 @@ public class SecurityFilterChainConfig {
                                         "/api/v1/auth/login"
                                 )
                                 .permitAll()
+                                .requestMatchers("/api/v1/admin/**")
+                                .access((authentication, context) ->
+                                        new AuthorizationDecision(isAdmin(authentication.get())))
                                 .anyRequest()
                                 .authenticated()
                 )
@@ -55,4 +68,14 @@ public class SecurityFilterChainConfig {
         ;
         return http.build();
     }
+
+    private boolean isAdmin(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        return adminEmails.contains(authentication.getName())
+                || authentication.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .anyMatch("ROLE_ADMIN"::equals);
+    }
 }
@@ -0,0 +1,3 @@
+-- row version for optimistic locking (Member: @Version), bumped by every
+-- update of the member's fields and sent to clients as the ETag
+ALTER TABLE member ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,28 @@
+-- one counter for the whole member table, the ETag of GET /api/v1/members;
+-- bumped by the trigger below in the writing transaction, so it changes
+-- exactly when the change becomes visible, whoever wrote it
+CREATE TABLE member_list_version(
+    id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    version BIGINT NOT NULL
+);
+
+INSERT INTO member_list_version(id, version) VALUES (TRUE, 0);
+
+CREATE FUNCTION bump_member_list_version() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE member_list_version SET version = version + 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- once per statement, a batch insert bumps it once; password rehashes are
+-- not listed and leave it alone
+CREATE TRIGGER member_list_version_bump
+    AFTER INSERT OR DELETE OR UPDATE OF name, email, age, gender ON member
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_member_list_version();
+
+CREATE TRIGGER member_list_version_truncate
+    AFTER TRUNCATE ON member
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION bump_member_list_version();
@@ -0,0 +1,11 @@
+-- GET /api/v1/members/search: every filter combination and sort can seek
+-- into one of these, each ending in id, the keyset tie breaker. Names are
+-- compared in code point order (COLLATE "C"), where a prefix is a range
+CREATE INDEX member_age_id_idx ON member (age, id);
+CREATE INDEX member_gender_id_idx ON member (gender, id);
+CREATE INDEX member_gender_age_id_idx ON member (gender, age, id);
+
+-- age and gender ride along, so the other filters are checked in the index
+-- and a search for fields=id,name,age,gender never visits the table
+CREATE INDEX member_name_id_idx ON member (name COLLATE "C", id) INCLUDE (age, gender);
+CREATE INDEX member_gender_name_id_idx ON member (gender, name COLLATE "C", id) INCLUDE (age);
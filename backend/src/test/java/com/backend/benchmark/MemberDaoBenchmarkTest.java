@@ -0,0 +1,88 @@
+package com.backend.benchmark;
+
+import com.backend.AbstractTestContainer;
+import com.backend.member.Gender;
+import com.backend.member.Member;
+import com.backend.member.MemberDao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same mixed workload against the jpa and jdbc MemberDao on one
+ * PostgreSQL container and prints ops/s and p50/p99/p999 per DAO method.
+ * Off by default, run with
+ * {@code mvn test -Dtest=MemberDaoBenchmarkTest -Dbenchmark.dao=true},
+ * see MemberDaoWorkload.Settings for the knobs.
+ */
+// statement logging would serialize the jpa threads on stdout
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmark.dao", matches = "true")
+class MemberDaoBenchmarkTest extends AbstractTestContainer {
+
+    private static final Path REPORT = Path.of("target", "dao-benchmark.csv");
+
+    @Autowired
+    @Qualifier("jpa")
+    private MemberDao jpa;
+
+    @Autowired
+    @Qualifier("jdbc")
+    private MemberDao jdbc;
+
+    @Test
+    void compareBackends() throws Exception {
+        MemberDaoWorkload.Settings settings = MemberDaoWorkload.Settings.fromSystemProperties();
+        List<Member> seeded = seed(settings.seedRows());
+
+        List<MemberDaoWorkload.Result> results = new ArrayList<>();
+        results.addAll(new MemberDaoWorkload(jpa, settings, seeded).run("jpa"));
+        results.addAll(new MemberDaoWorkload(jdbc, settings, seeded).run("jdbc"));
+
+        report(settings, results);
+        assertThat(results).isNotEmpty();
+    }
+
+    private List<Member> seed(int rows) {
+        jdbc.insertMembers(IntStream.range(0, rows)
+                .mapToObj(i -> new Member(
+                        FAKER.name().fullName(),
+                        "seed-%s-%s@mail.corp".formatted(i, System.nanoTime()),
+                        "password",
+                        FAKER.random().nextInt(16, 100),
+                        Gender.values()[i % Gender.values().length]))
+                .toList());
+        return jdbc.selectMembersAfter(null, rows);
+    }
+
+    private static void report(MemberDaoWorkload.Settings settings,
+                               List<MemberDaoWorkload.Result> results) throws IOException {
+        System.out.printf("%n%s threads, %s measured after %s warmup%n",
+                settings.threads(), settings.duration(), settings.warmup());
+        System.out.printf("%-8s %-16s %10s %12s %12s %12s %12s%n",
+                "backend", "operation", "count", "ops/s", "p50 us", "p99 us", "p999 us");
+        List<String> csv = new ArrayList<>();
+        csv.add("backend,operation,count,ops_per_second,p50_us,p99_us,p999_us");
+        for (MemberDaoWorkload.Result r : results) {
+            System.out.printf("%-8s %-16s %10d %12.1f %12.1f %12.1f %12.1f%n",
+                    r.backend(), r.operation(), r.count(), r.opsPerSecond(),
+                    r.p50Micros(), r.p99Micros(), r.p999Micros());
+            csv.add("%s,%s,%d,%.1f,%.1f,%.1f,%.1f".formatted(
+                    r.backend(), r.operation(), r.count(), r.opsPerSecond(),
+                    r.p50Micros(), r.p99Micros(), r.p999Micros()));
+        }
+        Files.createDirectories(REPORT.getParent());
+        Files.write(REPORT, csv);
+    }
+}
@@ -0,0 +1,224 @@
+package com.backend.benchmark;
+
+import com.backend.member.Gender;
+import com.backend.member.Member;
+import com.backend.member.MemberDao;
+import com.backend.member.MemberUpdateRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// a mixed read/write load against one MemberDao, every DAO call timed on its own
+class MemberDaoWorkload {
+
+    enum Operation {
+        SELECT_BY_ID,
+        SELECT_BY_EMAIL,
+        INSERT,
+        UPDATE,
+        PARTIAL_UPDATE,
+        DELETE,
+        LIST_SCAN
+    }
+
+    record Settings(int threads,
+                    Duration warmup,
+                    Duration duration,
+                    int seedRows,
+                    int scanSize,
+                    Map<Operation, Integer> mix) {
+
+        // -Dbenchmark.dao.threads=8 -Dbenchmark.dao.mix=SELECT_BY_ID:40,INSERT:10,...
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("benchmark.dao.threads", 8),
+                    Duration.parse(System.getProperty("benchmark.dao.warmup", "PT5S")),
+                    Duration.parse(System.getProperty("benchmark.dao.duration", "PT20S")),
+                    Integer.getInteger("benchmark.dao.seed-rows", 10_000),
+                    Integer.getInteger("benchmark.dao.scan-size", 50),
+                    parseMix(System.getProperty("benchmark.dao.mix",
+                            "SELECT_BY_ID:40,SELECT_BY_EMAIL:25,INSERT:10,UPDATE:5,PARTIAL_UPDATE:5,DELETE:5,LIST_SCAN:10")));
+        }
+
+        private static Map<Operation, Integer> parseMix(String mix) {
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.split(":");
+                weights.put(Operation.valueOf(parts[0].strip()), Integer.parseInt(parts[1].strip()));
+            }
+            return weights;
+        }
+    }
+
+    record Result(String backend,
+                  Operation operation,
+                  long count,
+                  double opsPerSecond,
+                  double p50Micros,
+                  double p99Micros,
+                  double p999Micros) {
+    }
+
+    private final MemberDao memberDao;
+    private final Settings settings;
+    // rows every backend reads and updates, seeded once up front
+    private final List<Member> seeded;
+    private final Operation[] weighted;
+
+    MemberDaoWorkload(MemberDao memberDao, Settings settings, List<Member> seeded) {
+        this.memberDao = memberDao;
+        this.settings = settings;
+        this.seeded = seeded;
+        List<Operation> operations = new ArrayList<>();
+        settings.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+        this.weighted = operations.toArray(Operation[]::new);
+    }
+
+    List<Result> run(String backend) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(settings.threads());
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        try {
+            List<Future<Latencies>> workers = new ArrayList<>();
+            for (int t = 0; t < settings.threads(); t++) {
+                int thread = t;
+                workers.add(executor.submit(() -> work(backend, thread, measureFrom, end)));
+            }
+            Latencies total = new Latencies();
+            for (Future<Latencies> worker : workers) {
+                total.addAll(worker.get());
+            }
+            return total.results(backend, settings.duration());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private Latencies work(String backend, int thread, long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Latencies latencies = new Latencies();
+        // members this thread inserted, deletes take from here
+        Deque<String> inserted = new ArrayDeque<>();
+        long sequence = 0;
+
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Operation operation = weighted[random.nextInt(weighted.length)];
+            if (operation == Operation.DELETE && inserted.isEmpty()) {
+                operation = Operation.INSERT;
+            }
+            Member target = seeded.get(random.nextInt(seeded.size()));
+            long elapsed;
+            switch (operation) {
+                case SELECT_BY_ID -> elapsed = time(() -> memberDao.selectMemberById(target.getId()));
+                case SELECT_BY_EMAIL -> elapsed = time(() -> memberDao.selectUserByEmail(target.getEmail()));
+                case INSERT -> {
+                    String email = "bench-%s-%s-%s-%s@mail.corp".formatted(
+                            backend, thread, sequence++, System.nanoTime());
+                    Member member = new Member("Bench Member", email, "password",
+                            random.nextInt(16, 100), Gender.NA);
+                    elapsed = time(() -> memberDao.insertMember(member));
+                    inserted.push(email);
+                }
+                // a full write of the current version, the read is not part of the timing
+                case UPDATE -> {
+                    Member member = memberDao.selectMemberById(target.getId()).orElseThrow();
+                    member.setAge(random.nextInt(16, 100));
+                    try {
+                        elapsed = time(() -> memberDao.updateMember(member));
+                    } catch (OptimisticLockingFailureException e) {
+                        // another thread updated the row in between, not a sample
+                        continue;
+                    }
+                }
+                // one changed column: a single UPDATE on jdbc, load and dirty-checked flush on jpa
+                case PARTIAL_UPDATE -> {
+                    MemberUpdateRequest changes = new MemberUpdateRequest(
+                            null, null, random.nextInt(16, 100), null);
+                    elapsed = time(() -> memberDao.updateMemberFields(target.getId(), changes, null));
+                }
+                case DELETE -> {
+                    // the id lookup is not part of the timing
+                    Integer id = memberDao.selectUserByEmail(inserted.pop())
+                            .map(Member::getId)
+                            .orElseThrow();
+                    elapsed = time(() -> memberDao.deleteMemberById(id));
+                }
+                case LIST_SCAN -> elapsed = time(() -> memberDao.selectMembersAfter(
+                        target.getId(), settings.scanSize()));
+                default -> throw new IllegalStateException(operation.name());
+            }
+            if (now >= measureFrom) {
+                latencies.record(operation, elapsed);
+            }
+        }
+        return latencies;
+    }
+
+    private static long time(Runnable call) {
+        long start = System.nanoTime();
+        call.run();
+        return System.nanoTime() - start;
+    }
+
+    // raw nanosecond samples per operation, sorted once at the end
+    private static class Latencies {
+        private final Map<Operation, long[]> samples = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long nanos) {
+            int count = counts.getOrDefault(operation, 0);
+            long[] values = samples.computeIfAbsent(operation, o -> new long[1024]);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                samples.put(operation, values);
+            }
+            values[count] = nanos;
+            counts.put(operation, count + 1);
+        }
+
+        void addAll(Latencies other) {
+            other.counts.forEach((operation, count) -> {
+                long[] values = other.samples.get(operation);
+                for (int i = 0; i < count; i++) {
+                    record(operation, values[i]);
+                }
+            });
+        }
+
+        List<Result> results(String backend, Duration duration) {
+            List<Result> results = new ArrayList<>();
+            double seconds = duration.toNanos() / 1e9;
+            counts.forEach((operation, count) -> {
+                long[] values = Arrays.copyOf(samples.get(operation), count);
+                Arrays.sort(values);
+                results.add(new Result(backend, operation, count, count / seconds,
+                        percentile(values, 0.50), percentile(values, 0.99), percentile(values, 0.999)));
+            });
+            return results;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000.0;
+        }
+    }
+}
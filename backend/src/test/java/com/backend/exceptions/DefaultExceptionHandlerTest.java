@@ -0,0 +1,40 @@
+package com.backend.exceptions;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DefaultExceptionHandlerTest {
+
+    private final DefaultExceptionHandler underTest = new DefaultExceptionHandler();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+
+    @Test
+    void overloadedUserLookupDuringLoginIsServiceUnavailable() {
+        InternalAuthenticationServiceException e = new InternalAuthenticationServiceException(
+                "member lookup is taking too long",
+                new ServiceUnavailableException("member lookup is taking too long", Duration.ofMillis(1500)));
+
+        ResponseEntity<ApiError> actual = underTest.handleException(e, request);
+
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(actual.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+
+    @Test
+    void otherUserLookupFailuresAreInternalErrors() {
+        InternalAuthenticationServiceException e = new InternalAuthenticationServiceException(
+                "connection refused", new IllegalStateException("connection refused"));
+
+        ResponseEntity<ApiError> actual = underTest.handleException(e, request);
+
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
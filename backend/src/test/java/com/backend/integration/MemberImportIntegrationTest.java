@@ -0,0 +1,111 @@
+package com.backend.integration;
+
+import com.backend.member.Gender;
+import com.backend.member.MemberBatchResult;
+import com.backend.member.MemberImportResult;
+import com.backend.member.MemberRegistrationRequest;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class MemberImportIntegrationTest {
+
+    private static final String IMPORT_URI = "/api/v1/admin/members/import";
+    private static final String ADMIN_EMAIL = "admin-" + UUID.randomUUID() + "@corp.ca";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void adminEmails(DynamicPropertyRegistry registry) {
+        registry.add("security.admin-emails", () -> ADMIN_EMAIL);
+    }
+
+    private String register(String email) {
+        MemberRegistrationRequest request = new MemberRegistrationRequest(
+                "Admin", 30, email, "password", Gender.NA
+        );
+        return webTestClient.post()
+                .uri("/api/v1/members")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), MemberRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(AUTHORIZATION)
+                .get(0);
+    }
+
+    @Test
+    void canImportMembersFromCsv() {
+        String jwtToken = register(ADMIN_EMAIL);
+        Faker faker = new Faker();
+        String prefix = UUID.randomUUID().toString();
+        String csv = """
+                name,email,password,age,gender
+                "%s",%s-1@corp.ca,password,21,MALE
+                "%s",%s-2@corp.ca,"pass,word",35,
+                %s,%s,password,40,FEMALE
+                Repeat,%s-1@corp.ca,password,50,NA
+                Bad Age,%s-3@corp.ca,password,old,NA
+                """.formatted(
+                faker.name().fullName(), prefix,
+                faker.name().fullName(), prefix,
+                "Taken", ADMIN_EMAIL,
+                prefix,
+                prefix);
+
+        MemberImportResult result = webTestClient.post()
+                .uri(IMPORT_URI)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .contentType(TEXT_CSV)
+                .bodyValue(csv)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(MemberImportResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(result.rejections())
+                .extracting(MemberBatchResult::index, MemberBatchResult::status)
+                .containsExactly(
+                        tuple(4, MemberBatchResult.Status.DUPLICATE),
+                        tuple(5, MemberBatchResult.Status.DUPLICATE),
+                        tuple(6, MemberBatchResult.Status.INVALID));
+    }
+
+    @Test
+    void importRequiresAdmin() {
+        String jwtToken = register("user-" + UUID.randomUUID() + "@corp.ca");
+
+        webTestClient.post()
+                .uri(IMPORT_URI)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .contentType(TEXT_CSV)
+                .bodyValue("name,email,password,age,gender\n")
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+    }
+}
@@ -1,21 +1,33 @@
 package com.backend.integration;
 
+import com.backend.auth.AuthenticationRequest;
 import com.backend.member.*;
 import com.github.javafaker.Faker;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 
 // test API/CRUD flow
 @SpringBootTest(webEnvironment = RANDOM_PORT)
@@ -23,6 +35,10 @@ public class MemberIntegrationTest {
 
     @Autowired
     private WebTestClient webTestClient;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MemberListVersion memberListVersion;
     private static final String MEMBER_URI = "/api/v1/members";
     private static final Random RANDOM = new Random();
 
@@ -80,7 +96,8 @@ public class MemberIntegrationTest {
                 age,
                 gender,
                 List.of("ROLE_USER"),
-                email
+                email,
+                0
         );
 
         // verify POST member is present
@@ -227,21 +244,61 @@ public class MemberIntegrationTest {
                 .findFirst()
                 .orElseThrow();
 
+        // the ETag to update from
+        String etag = webTestClient.get()
+                .uri(MEMBER_URI + "/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MemberDTO.class)
+                .getResponseHeaders()
+                .getETag();
+        assertThat(etag).isEqualTo("\"0\"");
+
         // create update request
         MemberUpdateRequest updateRequest = new MemberUpdateRequest(
                 name+ " Lee",null,null, gender
         );
 
+        // PUT without If-Match
+        webTestClient.put()
+                .uri(MEMBER_URI+"/{id}",id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(updateRequest), MemberUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_REQUIRED);
+
         // PUT update request
         webTestClient.put()
                 .uri(MEMBER_URI+"/{id}",id)
                 .accept(MediaType.APPLICATION_JSON)
                 .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(IF_MATCH, etag)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(Mono.just(updateRequest), MemberUpdateRequest.class)
                 .exchange()
                 .expectStatus()
-                .isOk();
+                .isOk()
+                .expectHeader()
+                .valueEquals(ETAG, "\"1\"");
+
+        // a second write from the same stale read loses
+        webTestClient.put()
+                .uri(MEMBER_URI+"/{id}",id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new MemberUpdateRequest(null, null, age == 16 ? 17 : 16, null)),
+                        MemberUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
 
         // get updated member
         MemberDTO updatedMember = webTestClient.get()
@@ -256,8 +313,447 @@ public class MemberIntegrationTest {
                 .getResponseBody();
 
         // assert, age is unchanged
-        MemberDTO expectedMember = new MemberDTO(id, name+ " Lee",email, age, gender, List.of("ROLE_USER"), email);
+        MemberDTO expectedMember = new MemberDTO(id, name+ " Lee",email, age, gender, List.of("ROLE_USER"), email, 1);
 
         assertThat(updatedMember).isEqualTo(expectedMember);
+
+        // nothing changed since, no body
+        webTestClient.get()
+                .uri(MEMBER_URI + "/{id}",id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(IF_NONE_MATCH, "\"1\"")
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader()
+                .valueEquals(ETAG, "\"1\"")
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Test
+    void listIsNotModifiedUntilMembersChange(){
+        Faker faker = new Faker();
+        String jwtToken = register(faker.internet().safeEmailAddress());
+
+        String etag = webTestClient.get()
+                .uri(MEMBER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MemberDTO.class)
+                .getResponseHeaders()
+                .getETag();
+        assertThat(etag).isNotNull();
+
+        // unchanged, no body
+        webTestClient.get()
+                .uri(MEMBER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectBody()
+                .isEmpty();
+
+        // a registration through the service is seen right away
+        register(faker.internet().safeEmailAddress());
+        String afterRegistration = webTestClient.get()
+                .uri(MEMBER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MemberDTO.class)
+                .getResponseHeaders()
+                .getETag();
+        assertThat(afterRegistration).isNotEqualTo(etag);
+
+        // plain sql bypassing the service is caught by the trigger and the next poll
+        jdbcTemplate.update("UPDATE member SET age = age WHERE id = (SELECT min(id) FROM member)");
+        memberListVersion.refresh();
+        webTestClient.get()
+                .uri(MEMBER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(IF_NONE_MATCH, afterRegistration)
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
+    @Test
+    void concurrentRegistrationsWithOneEmailCreateOneMember(){
+        String email = new Faker().internet().safeEmailAddress();
+
+        // raced in parallel, every request past any check before the others insert
+        List<Integer> statuses = Flux.range(0, 4)
+                .flatMap(i -> Mono.fromCallable(() -> webTestClient.post()
+                                .uri(MEMBER_URI)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(Mono.just(new MemberRegistrationRequest(
+                                        "Racer " + i, 30, email, "password", Gender.MALE)),
+                                        MemberRegistrationRequest.class)
+                                .exchange()
+                                .returnResult(Void.class)
+                                .getStatus()
+                                .value())
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .collectList()
+                .block();
+
+        assertThat(statuses).containsOnlyOnce(HttpStatus.OK.value());
+        assertThat(statuses).filteredOn(status -> status != HttpStatus.OK.value())
+                .containsOnly(HttpStatus.CONFLICT.value());
+    }
+
+    private String register(String email){
+        MemberRegistrationRequest request = new MemberRegistrationRequest(
+                "List Poller", 30, email, "password", Gender.FEMALE
+        );
+        return webTestClient.post()
+                .uri(MEMBER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), MemberRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(AUTHORIZATION)
+                .get(0);
+    }
+
+    @Test
+    void canPageThroughMembers(){
+        // register a few members
+        Faker faker = new Faker();
+        String jwtToken = null;
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String email = faker.internet().safeEmailAddress() + i;
+            emails.add(email);
+            MemberRegistrationRequest request = new MemberRegistrationRequest(
+                    faker.name().fullName(), RANDOM.nextInt(16, 100), email, "password", Gender.NA
+            );
+            jwtToken = webTestClient.post()
+                    .uri(MEMBER_URI)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Mono.just(request), MemberRegistrationRequest.class)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .returnResult(Void.class)
+                    .getResponseHeaders()
+                    .get(AUTHORIZATION)
+                    .get(0);
+        }
+
+        // follow the cursor until the last page
+        List<MemberDTO> members = new ArrayList<>();
+        String after = null;
+        do {
+            String cursor = after;
+            MemberPage page = webTestClient.get()
+                    .uri(uriBuilder -> uriBuilder.path(MEMBER_URI)
+                            .queryParam("limit", 2)
+                            .queryParamIfPresent("after", Optional.ofNullable(cursor))
+                            .build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(MemberPage.class)
+                    .returnResult()
+                    .getResponseBody();
+            assertThat(page.members()).hasSizeLessThanOrEqualTo(2);
+            members.addAll(page.members());
+            after = page.next();
+        } while (after != null);
+
+        // every member seen once, in id order
+        assertThat(members).extracting(MemberDTO::email).containsAll(emails);
+        assertThat(members).extracting(MemberDTO::id).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void canSearchMembers(){
+        Faker faker = new Faker();
+        // a name prefix nobody else has
+        String prefix = "Search" + faker.number().digits(8);
+        String jwtToken = null;
+        for (int age : List.of(40, 20, 30)) {
+            MemberRegistrationRequest request = new MemberRegistrationRequest(
+                    prefix + " " + age, age, faker.internet().safeEmailAddress() + ".search" + age,
+                    "password", Gender.NA
+            );
+            jwtToken = webTestClient.post()
+                    .uri(MEMBER_URI)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Mono.just(request), MemberRegistrationRequest.class)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .returnResult(Void.class)
+                    .getResponseHeaders()
+                    .get(AUTHORIZATION)
+                    .get(0);
+        }
+
+        // oldest first, two at a time
+        List<Integer> ages = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            String cursor = after;
+            MemberPage page = webTestClient.get()
+                    .uri(uriBuilder -> uriBuilder.path(MEMBER_URI + "/search")
+                            .queryParam("name", prefix)
+                            .queryParam("gender", "na")
+                            .queryParam("minAge", 20)
+                            .queryParam("sort", "age,desc")
+                            .queryParam("limit", 2)
+                            .queryParamIfPresent("after", Optional.ofNullable(cursor))
+                            .build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(MemberPage.class)
+                    .returnResult()
+                    .getResponseBody();
+            page.members().forEach(member -> ages.add(member.age()));
+            after = page.next();
+            pages++;
+        } while (after != null);
+
+        assertThat(ages).containsExactly(40, 30, 20);
+        assertThat(pages).isEqualTo(2);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MEMBER_URI + "/search")
+                        .queryParam("sort", "password")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void canFetchMembersByIds(){
+        Faker faker = new Faker();
+        String first = faker.internet().safeEmailAddress() + ".ids1";
+        String second = faker.internet().safeEmailAddress() + ".ids2";
+        register(first);
+        String jwtToken = register(second);
+        Integer firstId = jdbcTemplate.queryForObject(
+                "SELECT id FROM member WHERE email = ?", Integer.class, first);
+        Integer secondId = jdbcTemplate.queryForObject(
+                "SELECT id FROM member WHERE email = ?", Integer.class, second);
+        int unknownId = Integer.MAX_VALUE;
+
+        // asked for out of id order, with a repeat and an id nobody has
+        MemberLookup lookup = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MEMBER_URI)
+                        .queryParam("ids", "%s,%s,%s,%s".formatted(secondId, unknownId, firstId, secondId))
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(MemberLookup.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(lookup.members()).extracting(MemberDTO::email).containsExactly(second, first);
+        assertThat(lookup.missing()).containsExactly(unknownId);
+
+        // the body variant answers the same
+        webTestClient.post()
+                .uri(MEMBER_URI + "/lookup")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .body(Mono.just(List.of(secondId, unknownId, firstId, secondId)), List.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(MemberLookup.class)
+                .isEqualTo(lookup);
+
+        // a lookup is not paged
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MEMBER_URI)
+                        .queryParam("ids", firstId)
+                        .queryParam("limit", 5)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void canReadOnlySomeFields(){
+        Faker faker = new Faker();
+        String email = faker.internet().safeEmailAddress() + ".fields";
+        String jwtToken = register(email);
+        Integer id = jdbcTemplate.queryForObject(
+                "SELECT id FROM member WHERE email = ?", Integer.class, email);
+
+        EntityExchangeResult<Map> member = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MEMBER_URI + "/{id}")
+                        .queryParam("fields", "id,email")
+                        .build(id))
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Map.class)
+                .returnResult();
+
+        assertThat(member.getResponseBody()).containsOnlyKeys("id", "email");
+        // a different representation than the full member, at the same version
+        assertThat(member.getResponseHeaders().getETag()).isEqualTo("\"0;id.email\"");
+
+        List<Map> members = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MEMBER_URI)
+                        .queryParam("fields", "name")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Map.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(members).isNotEmpty().allSatisfy(row -> assertThat(row).containsOnlyKeys("name"));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(MEMBER_URI)
+                        .queryParam("fields", "password")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void canExportMembers(){
+        // register a member
+        Faker faker = new Faker();
+        String email = faker.internet().safeEmailAddress();
+        MemberRegistrationRequest request = new MemberRegistrationRequest(
+                faker.name().fullName(), RANDOM.nextInt(16, 100), email, "password", Gender.NA
+        );
+        String jwtToken = webTestClient.post()
+                .uri(MEMBER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), MemberRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(AUTHORIZATION)
+                .get(0);
+
+        // one json document per line
+        List<MemberDTO> members = webTestClient.get()
+                .uri(MEMBER_URI + "/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .returnResult(MemberDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(members).extracting(MemberDTO::email).contains(email);
+    }
+
+    @Test
+    void canRegisterMembersInBatch(){
+        Faker faker = new Faker();
+        String email = faker.internet().safeEmailAddress();
+        MemberRegistrationRequest request = new MemberRegistrationRequest(
+                faker.name().fullName(), RANDOM.nextInt(16, 100), email, "password", Gender.NA
+        );
+
+        // register one member up front, its token authorizes the batch
+        String jwtToken = webTestClient.post()
+                .uri(MEMBER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), MemberRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(AUTHORIZATION)
+                .get(0);
+
+        List<MemberRegistrationRequest> batch = List.of(
+                new MemberRegistrationRequest(faker.name().fullName(), 20, "a." + email, "password", Gender.MALE),
+                new MemberRegistrationRequest(faker.name().fullName(), 30, email, "password", Gender.FEMALE),
+                new MemberRegistrationRequest(faker.name().fullName(), 40, "b." + email, "password", Gender.NA)
+        );
+
+        List<MemberBatchResult> results = webTestClient.post()
+                .uri(MEMBER_URI + "/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MemberBatchResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(results).extracting(MemberBatchResult::status).containsExactly(
+                MemberBatchResult.Status.CREATED,
+                MemberBatchResult.Status.DUPLICATE,
+                MemberBatchResult.Status.CREATED
+        );
+
+        // created members can log in with their own password
+        webTestClient.post()
+                .uri("/api/v1/auth/login")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new AuthenticationRequest("b." + email, "password"))
+                .exchange()
+                .expectStatus()
+                .isOk();
     }
 }
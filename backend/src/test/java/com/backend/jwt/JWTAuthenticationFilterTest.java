@@ -0,0 +1,104 @@
+package com.backend.jwt;
+
+import com.backend.exceptions.ServiceUnavailableException;
+import com.backend.member.Gender;
+import com.backend.member.Member;
+import com.backend.member.MemberUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JWTAuthenticationFilterTest {
+
+    @Mock
+    private MemberUserDetailsService userDetailsService;
+    @Mock
+    private HandlerExceptionResolver handlerExceptionResolver;
+    private final JWTUtil jwtUtil = new JWTUtil();
+    private final VerifiedTokenCache verifiedTokenCache =
+            new VerifiedTokenCache(new JWTVerifier(), new SimpleMeterRegistry(), 10);
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesFromMemberLookup() throws Exception {
+        String email = "jo@mail.corp";
+        Member member = new Member(1, "Jo", email, "password", 18, Gender.MALE);
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(member);
+        JWTAuthenticationFilter underTest =
+                new JWTAuthenticationFilter(verifiedTokenCache, userDetailsService, handlerExceptionResolver, false);
+
+        underTest.doFilter(bearer(jwtUtil.issueToken(email, "ROLE_USER")),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication actual = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(actual.getPrincipal()).isEqualTo(member);
+    }
+
+    @Test
+    void statelessPrincipalSkipsMemberLookup() throws Exception {
+        String email = "jo@mail.corp";
+        JWTAuthenticationFilter underTest =
+                new JWTAuthenticationFilter(verifiedTokenCache, userDetailsService, handlerExceptionResolver, true);
+
+        underTest.doFilter(bearer(jwtUtil.issueToken(email, "ROLE_USER")),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication actual = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(actual.getPrincipal()).isEqualTo(email);
+        assertThat(actual.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void overloadedMemberLookupIsResolvedAsAnError() throws Exception {
+        String email = "jo@mail.corp";
+        ServiceUnavailableException overloaded =
+                new ServiceUnavailableException("member lookup is taking too long", Duration.ofSeconds(1));
+        when(userDetailsService.loadUserByUsername(email)).thenThrow(overloaded);
+        JWTAuthenticationFilter underTest =
+                new JWTAuthenticationFilter(verifiedTokenCache, userDetailsService, handlerExceptionResolver, false);
+        MockHttpServletRequest request = bearer(jwtUtil.issueToken(email, "ROLE_USER"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        underTest.doFilter(request, response, filterChain);
+
+        verify(handlerExceptionResolver).resolveException(request, response, null, overloaded);
+        assertThat(filterChain.getRequest()).isNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/members");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,78 @@
+package com.backend.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static java.time.temporal.ChronoUnit.HOURS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTVerifierTest {
+
+    private final JWTUtil jwtUtil = new JWTUtil();
+    private final JWTVerifier underTest = new JWTVerifier();
+
+    @Test
+    void verifyIssuedToken() {
+        String token = jwtUtil.issueToken("jo@mail.corp", List.of("ROLE_USER"));
+
+        VerifiedToken actual = underTest.verify(token);
+
+        assertThat(actual.subject()).isEqualTo("jo@mail.corp");
+        assertThat(actual.scopes()).containsExactly("ROLE_USER");
+        assertThat(actual.isIssuedTo("jo@mail.corp")).isTrue();
+        assertThat(actual.isExpired(Instant.now())).isFalse();
+        assertThat(actual.expiresAt()).isAfter(Instant.now().plus(14, HOURS));
+    }
+
+    @Test
+    void verifyTokenWithoutScopes() {
+        String token = jwtUtil.issueToken("jo@mail.corp");
+
+        VerifiedToken actual = underTest.verify(token);
+
+        assertThat(actual.scopes()).isEmpty();
+    }
+
+    @Test
+    void willThrowWhenTokenIsTampered() {
+        String token = jwtUtil.issueToken("jo@mail.corp", "ROLE_USER");
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThatThrownBy(() -> underTest.verify(tampered))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void willThrowWhenTokenIsExpired() {
+        String token = Jwts.builder()
+                .setSubject("jo@mail.corp")
+                .setExpiration(Date.from(Instant.now().minus(1, HOURS)))
+                .signWith(Keys.hmacShaKeyFor(JWTUtil.SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> underTest.verify(token))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void willThrowWhenTokenNeverExpires() {
+        String token = Jwts.builder()
+                .setSubject("jo@mail.corp")
+                .signWith(Keys.hmacShaKeyFor(JWTUtil.SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> underTest.verify(token))
+                .isInstanceOf(JwtException.class)
+                .hasMessage("token has no expiration");
+    }
+}
@@ -0,0 +1,76 @@
+package com.backend.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static java.time.temporal.ChronoUnit.HOURS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private final JWTUtil jwtUtil = new JWTUtil();
+    private JWTVerifier jwtVerifier;
+    private VerifiedTokenCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        jwtVerifier = spy(new JWTVerifier());
+        underTest = new VerifiedTokenCache(jwtVerifier, new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    void verifiesTokenOnlyOnce() {
+        String token = jwtUtil.issueToken("jo@mail.corp", "ROLE_USER");
+
+        VerifiedToken first = underTest.verify(token);
+        VerifiedToken second = underTest.verify(token);
+
+        assertThat(second).isEqualTo(first);
+        verify(jwtVerifier, times(1)).verify(token);
+        assertThat(underTest.stats().hitCount()).isEqualTo(1);
+        assertThat(underTest.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownTokenIsVerified() {
+        String token = jwtUtil.issueToken("jo@mail.corp", "ROLE_USER");
+        String other = jwtUtil.issueToken("jay@mail.corp", "ROLE_USER");
+
+        underTest.verify(token);
+        underTest.verify(other);
+
+        verify(jwtVerifier).verify(token);
+        verify(jwtVerifier).verify(other);
+    }
+
+    @Test
+    void invalidTokenIsNotCached() {
+        String token = jwtUtil.issueToken("jo@mail.corp", "ROLE_USER");
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThatThrownBy(() -> underTest.verify(tampered));
+        assertThatThrownBy(() -> underTest.verify(tampered));
+
+        verify(jwtVerifier, times(2)).verify(tampered);
+    }
+
+    @Test
+    void expiredTokenGoesThroughFullVerification() {
+        String token = "header.payload.signature";
+        VerifiedToken expired = new VerifiedToken("jo@mail.corp", List.of(), Instant.now().minus(1, HOURS));
+        doReturn(expired)
+                .doThrow(new ExpiredJwtException(null, null, "expired"))
+                .when(jwtVerifier).verify(token);
+
+        assertThatThrownBy(() -> underTest.verify(token))
+                .isInstanceOf(ExpiredJwtException.class);
+        verify(jwtVerifier, times(2)).verify(token);
+    }
+}
@@ -0,0 +1,147 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class BloomFilterMemberDaoTest {
+
+    private final MemberDao delegate = mock(MemberDao.class);
+    private final MemberJdbcDataAccessService source = mock(MemberJdbcDataAccessService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BloomFilterMemberDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new BloomFilterMemberDao(delegate, source,
+                new MemberDaoProperties.EmailFilter(true, 1_000, 0.01, Duration.ofHours(1)), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void buildWith(String... emails) {
+        when(source.countMembers()).thenReturn((long) emails.length);
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(1);
+            for (String email : emails) {
+                consumer.accept(email);
+            }
+            return null;
+        }).when(source).streamEmails(anyInt(), any(Consumer.class));
+        underTest.rebuild();
+    }
+
+    private double lookups(String outcome) {
+        return meterRegistry.get("member.email.filter.lookups").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void asksTheDatabaseUntilBuilt() {
+        when(delegate.existsMemberWithEmail("jo@mail.corp")).thenReturn(true);
+
+        assertThat(underTest.existsMemberWithEmail("jo@mail.corp")).isTrue();
+        assertThat(lookups("unavailable")).isEqualTo(1);
+    }
+
+    @Test
+    void unknownEmailSkipsTheDatabase() {
+        buildWith("jo@mail.corp");
+
+        assertThat(underTest.existsMemberWithEmail("new@mail.corp")).isFalse();
+
+        verify(delegate, never()).existsMemberWithEmail(any());
+        assertThat(lookups("skipped")).isEqualTo(1);
+    }
+
+    @Test
+    void possibleHitIsConfirmedByTheDatabase() {
+        buildWith("jo@mail.corp");
+        when(delegate.existsMemberWithEmail("jo@mail.corp")).thenReturn(true);
+
+        assertThat(underTest.existsMemberWithEmail("jo@mail.corp")).isTrue();
+        assertThat(lookups("confirmed")).isEqualTo(1);
+    }
+
+    @Test
+    void insertedEmailIsChecked() {
+        buildWith();
+        when(delegate.insertMember(any())).thenReturn(Optional.of(1));
+
+        underTest.insertMember(new Member("Jo", "jo@mail.corp", "password", 18, Gender.MALE));
+        underTest.existsMemberWithEmail("jo@mail.corp");
+
+        verify(delegate).existsMemberWithEmail("jo@mail.corp");
+    }
+
+    @Test
+    void selectExistingEmailsQueriesOnlyPossibleHits() {
+        buildWith("jo@mail.corp");
+        when(delegate.selectExistingEmails(List.of("jo@mail.corp"))).thenReturn(Set.of("jo@mail.corp"));
+
+        Set<String> existing = underTest.selectExistingEmails(List.of("jo@mail.corp", "new@mail.corp"));
+
+        assertThat(existing).containsExactly("jo@mail.corp");
+        assertThat(lookups("skipped")).isEqualTo(1);
+    }
+
+    @Test
+    void importWithoutEmailsRebuilds() {
+        buildWith("jo@mail.corp");
+        clearInvocations(source);
+
+        underTest.onMemberChanged(new MemberChangedEvent(MemberChangedEvent.Change.CREATED, null, Set.of()));
+
+        verify(source, timeout(1_000)).streamEmails(anyInt(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void emailInsertedDuringRebuildIsInTheNewFilter() {
+        when(source.countMembers()).thenReturn(1L);
+        when(delegate.insertMember(any())).thenReturn(Optional.of(2));
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(1);
+            consumer.accept("jo@mail.corp");
+            // committed after the stream read the table
+            underTest.insertMember(new Member("Lee", "lee@mail.corp", "password", 40, Gender.FEMALE));
+            return null;
+        }).when(source).streamEmails(anyInt(), any(Consumer.class));
+
+        underTest.rebuild();
+        underTest.existsMemberWithEmail("lee@mail.corp");
+
+        verify(delegate).existsMemberWithEmail("lee@mail.corp");
+    }
+
+    @Test
+    void startBuildsOnItsOwnThread() throws Exception {
+        when(source.countMembers()).thenReturn(0L);
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        doAnswer(invocation -> {
+            thread.complete(Thread.currentThread().getName());
+            return null;
+        }).when(source).streamEmails(anyInt(), any());
+
+        underTest.start();
+
+        assertThat(thread.get(1, TimeUnit.SECONDS)).startsWith("member-email-filter-");
+    }
+}
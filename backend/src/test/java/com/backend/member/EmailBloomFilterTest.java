@@ -0,0 +1,43 @@
+package com.backend.member;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailBloomFilterTest {
+
+    @Test
+    void neverMissesAnEmailItWasGiven() {
+        EmailBloomFilter underTest = new EmailBloomFilter(10_000, 0.01);
+
+        IntStream.range(0, 10_000).forEach(i -> underTest.put("member-%s@mail.corp".formatted(i)));
+
+        assertThat(IntStream.range(0, 10_000))
+                .allMatch(i -> underTest.mightContain("member-%s@mail.corp".formatted(i)));
+        assertThat(underTest.entries()).isEqualTo(10_000);
+    }
+
+    @Test
+    void falsePositivesStayNearTheConfiguredRate() {
+        EmailBloomFilter underTest = new EmailBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> underTest.put("member-%s@mail.corp".formatted(i)));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> underTest.mightContain("stranger-%s@mail.corp".formatted(i)))
+                .count();
+
+        // 1% of 100k, with room for variance
+        assertThat(falsePositives).isLessThan(1_500);
+        assertThat(underTest.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        EmailBloomFilter underTest = new EmailBloomFilter(1_000, 0.01);
+
+        assertThat(underTest.mightContain("jo@mail.corp")).isFalse();
+        assertThat(underTest.expectedFalsePositiveRate()).isZero();
+    }
+}
@@ -0,0 +1,48 @@
+package com.backend.member;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCsvReaderTest {
+
+    private static MemberCsvReader reader(String csv) {
+        return new MemberCsvReader(new BufferedReader(new StringReader(csv)));
+    }
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        MemberCsvReader reader = reader("name,email\n\"Doe, Jane\",\"say \"\"hi\"\"\"\n");
+
+        assertThat(reader.next()).containsExactly("name", "email");
+        assertThat(reader.next()).containsExactly("Doe, Jane", "say \"hi\"");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void reportsLineWhereRecordStarts() throws IOException {
+        MemberCsvReader reader = reader("a,\"multi\nline\"\r\nb,c");
+
+        List<String> first = reader.next();
+        assertThat(first).containsExactly("a", "multi\nline");
+        assertThat(reader.line()).isEqualTo(1);
+
+        List<String> second = reader.next();
+        assertThat(second).containsExactly("b", "c");
+        assertThat(reader.line()).isEqualTo(3);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        MemberCsvReader reader = reader("a,,\n");
+
+        assertThat(reader.next()).containsExactly("a", "", "");
+        assertThat(reader.next()).isNull();
+    }
+}
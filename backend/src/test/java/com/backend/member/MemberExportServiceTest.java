@@ -0,0 +1,59 @@
+package com.backend.member;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberExportServiceTest {
+
+    @Mock
+    private MemberJdbcDataAccessService memberDao;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MemberExportService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new MemberExportService(memberDao, new MemberJsonWriter(), objectMapper, 100);
+    }
+
+    @Test
+    void exportMembersAsNdjson() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getInt(1)).thenReturn(1, 2);
+        when(resultSet.getString(2)).thenReturn("Jo", "Jay");
+        when(resultSet.getString(3)).thenReturn("jo@mail.corp", "jay@mail.corp");
+        when(resultSet.getInt(4)).thenReturn(18, 25);
+        when(resultSet.getString(5)).thenReturn("MALE", "FEMALE");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).when(memberDao).streamMemberRows(eq(100), eq(MemberFields.ALL), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        underTest.exportMembers(out);
+
+        MemberDTOMapper memberDTOMapper = new MemberDTOMapper();
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], MemberDTO.class)).isEqualTo(memberDTOMapper.apply(
+                new Member(1, "Jo", "jo@mail.corp", "password", 18, Gender.MALE)));
+        assertThat(objectMapper.readValue(lines[1], MemberDTO.class)).isEqualTo(memberDTOMapper.apply(
+                new Member(2, "Jay", "jay@mail.corp", "password", 25, Gender.FEMALE)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.backend.member;
+
+import com.backend.exceptions.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberFieldsTest {
+
+    @Test
+    void absentFieldsAreAllFields() {
+        assertThat(MemberFields.parse(null)).isSameAs(MemberFields.ALL);
+        assertThat(MemberFields.parse(" ")).isSameAs(MemberFields.ALL);
+        assertThat(MemberFields.parse("id,name,email,age,gender,roles,username,version"))
+                .isSameAs(MemberFields.ALL);
+        assertThat(MemberFields.ALL.key()).isEmpty();
+    }
+
+    @Test
+    void selectsOnlyTheColumnsOfTheFieldsAskedFor() {
+        MemberFields actual = MemberFields.parse("username, name");
+
+        assertThat(actual.selectList()).isEqualTo("name, email");
+        assertThat(actual.position(MemberFields.Column.EMAIL)).isEqualTo(2);
+        assertThat(actual.key()).isEqualTo("name.username");
+        assertThatThrownBy(() -> actual.position(MemberFields.Column.ID))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void neverSelectsThePassword() {
+        assertThat(MemberFields.ALL.selectList()).isEqualTo("id, name, email, age, gender, version");
+        assertThat(MemberFields.parse("roles").selectList()).isEqualTo("id");
+    }
+
+    @Test
+    void requiringAddsAColumnWithoutWritingIt() {
+        MemberFields actual = MemberFields.parse("name").requiring(MemberFields.Column.ID);
+
+        assertThat(actual.selectList()).isEqualTo("id, name");
+        assertThat(actual.includes(MemberFields.Field.ID)).isFalse();
+        assertThat(actual.key()).isEqualTo("name");
+    }
+
+    @Test
+    void willThrowWhenFieldIsUnknown() {
+        assertThatThrownBy(() -> MemberFields.parse("id,password"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessageStartingWith("unknown field [password]");
+        assertThatThrownBy(() -> MemberFields.parse(","))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("fields must name at least one field");
+    }
+}
@@ -1,22 +1,33 @@
 package com.backend.member;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 
 class MemberJPADataAccessServiceTest {
 
@@ -26,11 +37,13 @@ class MemberJPADataAccessServiceTest {
 
     @Mock
     private MemberRepository memberRepository;
+    @Mock
+    private EntityManager entityManager;
 
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this);
-        underTest = new MemberJPADataAccessService(memberRepository);
+        underTest = new MemberJPADataAccessService(memberRepository, entityManager);
     }
 
     @AfterEach
@@ -57,6 +70,53 @@ class MemberJPADataAccessServiceTest {
         assertThat(pageableArgumentCaptor.getValue()).isEqualTo(Pageable.ofSize(1000));
     }
 
+    @Test
+    void selectMembersAfter() {
+        underTest.selectMembersAfter(10, 50);
+
+        verify(memberRepository).findByIdGreaterThanOrderByIdAsc(10, Limit.of(50));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void selectMembersAfterReadsOnlyTheSelectedColumns() {
+        TypedQuery<Tuple> query = mock(TypedQuery.class);
+        Tuple row = mock(Tuple.class);
+        when(entityManager.createQuery(anyString(), eq(Tuple.class))).thenReturn(query);
+        when(query.setParameter("afterId", 10)).thenReturn(query);
+        when(query.setMaxResults(50)).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(row));
+        when(row.get(0, Integer.class)).thenReturn(11);
+        when(row.get(1, String.class)).thenReturn("Jo");
+
+        List<Member> actual = underTest.selectMembersAfter(10, 50, MemberFields.parse("id,name"));
+
+        verify(entityManager).createQuery(
+                "SELECT m.id, m.name FROM Member m WHERE m.id > :afterId ORDER BY m.id", Tuple.class);
+        assertThat(actual).singleElement().satisfies(member -> {
+            assertThat(member.getId()).isEqualTo(11);
+            assertThat(member.getName()).isEqualTo("Jo");
+            assertThat(member.getEmail()).isNull();
+            assertThat(member.getPassword()).isNull();
+        });
+    }
+
+    @Test
+    void selectFirstMembersPage() {
+        underTest.selectMembersAfter(null, 50);
+
+        verify(memberRepository).findByIdGreaterThanOrderByIdAsc(0, Limit.of(50));
+    }
+
+    @Test
+    void selectMembersByIds() {
+        List<Integer> ids = List.of(3, 1, 2);
+
+        underTest.selectMembersByIds(ids);
+
+        verify(memberRepository).findAllById(ids);
+    }
+
     @Test
     void selectMemberById() {
         int id = 1;
@@ -85,7 +145,38 @@ class MemberJPADataAccessServiceTest {
 
         underTest.insertMember(member);
 
-        verify(memberRepository).save(member);
+        verify(memberRepository).insertIfEmailAbsent(
+                "Jake Kai", "J.Kai@mail.corp", password, 22, gender.name());
+    }
+
+    @Test
+    void insertMembers() {
+        List<Member> members = List.of(
+                new Member("Jake Kai", "J.Kai@mail.corp", "password", 22, Gender.MALE),
+                new Member("Jo Lee", "J.Lee@mail.corp", "password", 31, Gender.FEMALE)
+        );
+
+        when(memberRepository.insertAllIfEmailAbsent(any(), any(), any(), any(), any()))
+                .thenReturn(List.of("J.Kai@mail.corp"));
+
+        Set<String> actual = underTest.insertMembers(members);
+
+        assertThat(actual).containsExactly("J.Kai@mail.corp");
+        verify(memberRepository).insertAllIfEmailAbsent(
+                new String[]{"Jake Kai", "Jo Lee"},
+                new String[]{"J.Kai@mail.corp", "J.Lee@mail.corp"},
+                new String[]{"password", "password"},
+                new Integer[]{22, 31},
+                new String[]{"MALE", "FEMALE"});
+    }
+
+    @Test
+    void selectExistingEmails() {
+        Set<String> emails = Set.of("J.Kai@mail.corp", "J.Lee@mail.corp");
+
+        underTest.selectExistingEmails(emails);
+
+        verify(memberRepository).findExistingEmails(emails);
     }
 
     @Test
@@ -94,7 +185,7 @@ class MemberJPADataAccessServiceTest {
 
         underTest.deleteMemberById(id);
 
-        verify(memberRepository).deleteById(id);
+        verify(memberRepository).deleteReturningEmail(id);
     }
 
     @Test
@@ -113,6 +204,45 @@ class MemberJPADataAccessServiceTest {
         verify(memberRepository).save(member);
     }
 
+    @Test
+    void updateMemberFields() {
+        Query update = mock(Query.class);
+        when(entityManager.createQuery(
+                "UPDATE Member m SET m.name = :name, m.age = :age, m.version = m.version + 1"
+                        + " WHERE m.id = :id AND m.version = :version")).thenReturn(update);
+        when(update.executeUpdate()).thenReturn(1);
+
+        int updated = underTest.updateMemberFields(1, new MemberUpdateRequest("Jake", null, 23, null), 0L);
+
+        assertThat(updated).isEqualTo(1);
+        verify(update).setParameter("name", "Jake");
+        verify(update).setParameter("age", 23);
+        verify(update).setParameter("id", 1);
+        verify(update).setParameter("version", 0L);
+        verify(memberRepository, never()).findById(any());
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void updateMemberFieldsWithoutVersion() {
+        Query update = mock(Query.class);
+        when(entityManager.createQuery(
+                "UPDATE Member m SET m.gender = :gender, m.version = m.version + 1 WHERE m.id = :id"))
+                .thenReturn(update);
+
+        assertThat(underTest.updateMemberFields(1, new MemberUpdateRequest(null, null, null, Gender.FEMALE), null))
+                .isZero();
+        verify(update).setParameter("gender", Gender.FEMALE);
+        verify(update, never()).setParameter(eq("version"), any());
+    }
+
+    @Test
+    void updateMemberFieldsWithNothingToChange() {
+        assertThat(underTest.updateMemberFields(1, new MemberUpdateRequest(null, null, null, null), 3L))
+                .isZero();
+        verifyNoInteractions(entityManager);
+    }
+
     @Test
     void existsMemberWithEmail() {
         String email = "random.mail@red.corp";
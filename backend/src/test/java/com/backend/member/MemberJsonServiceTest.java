@@ -0,0 +1,210 @@
+package com.backend.member;
+
+import com.backend.exceptions.RequestValidationException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberJsonServiceTest {
+
+    @Mock
+    private MemberDao memberDao;
+    @Mock
+    private MemberJdbcDataAccessService jdbcDao;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MemberJsonService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new MemberJsonService(memberDao, jdbcDao, new MemberJsonWriter(), objectMapper,
+                properties(false));
+    }
+
+    private static MemberDaoProperties properties(boolean nearCache) {
+        return new MemberDaoProperties("jpa", Map.of(), null, null,
+                new MemberDaoProperties.NearCache(nearCache, Duration.ofMinutes(1), 100,
+                        "member_changed", Duration.ofSeconds(1)),
+                null);
+    }
+
+    // members of id, name, read as "id, name"
+    private void pageRows(Integer afterId, int limit, int... ids) {
+        when(memberDao.selectMembersAfter(eq(afterId), eq(limit),
+                argThat(fields -> fields.selectList().equals("id, name"))))
+                .thenReturn(Arrays.stream(ids)
+                        .mapToObj(id -> new Member(id, "member " + id, null, null, null, null))
+                        .toList());
+    }
+
+    @Test
+    void getMembersPage() throws Exception {
+        pageRows(null, 3, 3, 5, 9);
+
+        JsonNode actual = objectMapper.readTree(
+                underTest.getMembersPageJson(null, 2, MemberFields.parse("id,name")));
+
+        assertThat(actual.get("members").findValuesAsText("id")).containsExactly("3", "5");
+        assertThat(actual.get("next").isTextual()).isTrue();
+
+        // the cursor continues after the last returned id
+        pageRows(5, 3, 9);
+        underTest.getMembersPageJson(actual.get("next").asText(), 2, MemberFields.parse("id,name"));
+        verify(memberDao).selectMembersAfter(eq(5), eq(3), any());
+    }
+
+    @Test
+    void lastMembersPageHasNoCursor() throws Exception {
+        pageRows(null, 3, 3);
+
+        JsonNode actual = objectMapper.readTree(
+                underTest.getMembersPageJson(null, 2, MemberFields.parse("id,name")));
+
+        assertThat(actual.get("members")).hasSize(1);
+        assertThat(actual.get("next").isNull()).isTrue();
+    }
+
+    @Test
+    void membersPageSelectsTheIdForTheCursorOnly() throws Exception {
+        pageRows(null, 2, 3, 5);
+
+        JsonNode actual = objectMapper.readTree(
+                underTest.getMembersPageJson(null, 1, MemberFields.parse("name")));
+
+        assertThat(actual.get("members").get(0).toString()).isEqualTo("{\"name\":\"member 3\"}");
+        assertThat(actual.get("next").isTextual()).isTrue();
+    }
+
+    @Test
+    void searchPageCursorCarriesTheSortValue() throws Exception {
+        MemberSearch search = MemberSearch.parse(null, null, null, "J", "name");
+        ResultSet resultSet = mock(ResultSet.class);
+        // "id, name"
+        when(resultSet.getInt(1)).thenReturn(7);
+        when(resultSet.getString(2)).thenReturn("Jo");
+        doAnswer(invocation -> {
+            MemberFields fields = invocation.getArgument(3);
+            assertThat(fields.selectList()).isEqualTo("id, name");
+            RowCallbackHandler handler = invocation.getArgument(4);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcDao).queryMemberRowsMatching(eq(search), isNull(), eq(2), any(), any());
+
+        JsonNode actual = objectMapper.readTree(
+                underTest.searchMembersJson(search, null, 1, MemberFields.parse("name")));
+
+        assertThat(actual.get("members").toString()).isEqualTo("[{\"name\":\"Jo\"}]");
+        assertThat(MemberCursor.decode(actual.get("next").asText(), MemberSearch.Sort.NAME))
+                .isEqualTo(new MemberSearch.Keyset("Jo", 7));
+    }
+
+    @Test
+    void willThrowWhenPageLimitOutOfRange() {
+        assertThatThrownBy(() -> underTest.getMembersPageJson(null, 0, MemberFields.ALL))
+                .isInstanceOf(RequestValidationException.class);
+        assertThatThrownBy(() -> underTest.getMembersPageJson(null, MemberService.MAX_PAGE_SIZE + 1, MemberFields.ALL))
+                .isInstanceOf(RequestValidationException.class);
+        verifyNoInteractions(memberDao, jdbcDao);
+    }
+
+    @Test
+    void willThrowWhenCursorIsInvalid() {
+        assertThatThrownBy(() -> underTest.getMembersPageJson("not-a-cursor", 10, MemberFields.ALL))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("invalid cursor [not-a-cursor]");
+    }
+
+    @Test
+    void getMemberJsonSkipsTheBodyWhenNotModified() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        // "email, version"
+        when(resultSet.getLong(2)).thenReturn(4L);
+        doAnswer(invocation -> {
+            MemberFields fields = invocation.getArgument(1);
+            assertThat(fields.selectList()).isEqualTo("email, version");
+            RowCallbackHandler handler = invocation.getArgument(2);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcDao).queryMemberRowById(eq(1), any(), any());
+
+        MemberJsonService.VersionedJson actual =
+                underTest.getMemberJson(1, MemberFields.parse("email"), version -> version == 4L);
+
+        assertThat(actual.version()).isEqualTo(4L);
+        assertThat(actual.body()).isNull();
+        verify(resultSet, never()).getString(anyInt());
+    }
+
+    @Test
+    void repeatedGetMemberJsonIsServedFromTheNearCache() throws Exception {
+        MemberDao database = mock(MemberDao.class);
+        when(database.selectMemberById(3, MemberFields.ALL)).thenReturn(Optional.of(
+                new Member(3, "Jo", "jo@mail.corp", null, 18, Gender.MALE)));
+        NearCacheMemberDao nearCache = new NearCacheMemberDao(database, mock(JdbcTemplate.class), mock(ApplicationEventPublisher.class),
+                properties(true).nearCache(), new SimpleMeterRegistry());
+        underTest = new MemberJsonService(nearCache, jdbcDao, new MemberJsonWriter(), objectMapper,
+                properties(true));
+
+        MemberJsonService.VersionedJson first =
+                underTest.getMemberJson(3, MemberFields.parse("id,name"), version -> false);
+        MemberJsonService.VersionedJson second =
+                underTest.getMemberJson(3, MemberFields.parse("id,name"), version -> false);
+        MemberJsonService.VersionedJson notModified =
+                underTest.getMemberJson(3, MemberFields.ALL, version -> version == 0L);
+
+        assertThat(new String(second.body())).isEqualTo(new String(first.body()))
+                .isEqualTo("{\"id\":3,\"name\":\"Jo\"}");
+        assertThat(notModified.body()).isNull();
+        verify(database, times(1)).selectMemberById(3, MemberFields.ALL);
+        verify(database, never()).selectMemberById(3);
+        verifyNoInteractions(jdbcDao);
+    }
+
+    @Test
+    void getMembersByIdsJsonWritesOnlyTheFieldsAskedFor() throws Exception {
+        Member member = new Member(3, null, "jo@mail.corp", null, null, null);
+        when(memberDao.selectMembersByIds(eq(Set.of(9, 3)),
+                argThat(fields -> fields.selectList().equals("id, email"))))
+                .thenReturn(List.of(member));
+
+        String actual = new String(underTest.getMembersByIdsJson(List.of(9, 3, 9), MemberFields.parse("id,email")));
+
+        assertThat(actual).isEqualTo("{\"members\":[{\"id\":3,\"email\":\"jo@mail.corp\"}],\"missing\":[9]}");
+    }
+
+    @Test
+    void getMembersByIdsJsonSelectsTheIdToMatchMembers() throws Exception {
+        when(memberDao.selectMembersByIds(eq(Set.of(3)),
+                argThat(fields -> fields.selectList().equals("id, name"))))
+                .thenReturn(List.of(new Member(3, "Jo", null, null, null, null)));
+
+        String actual = new String(underTest.getMembersByIdsJson(List.of(3), MemberFields.parse("name")));
+
+        assertThat(actual).isEqualTo("{\"members\":[{\"name\":\"Jo\"}],\"missing\":[]}");
+    }
+}
@@ -0,0 +1,89 @@
+package com.backend.member;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemberJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MemberJsonWriter underTest = new MemberJsonWriter();
+
+    @Test
+    void writeRowMatchesMemberDTO() throws Exception {
+        ResultSet resultSet = row(1, "Jake \"J\" Kai", "Jake@corp.ca", 21, "MALE");
+
+        String actual = write(resultSet);
+
+        // byte for byte what Jackson writes for the mapped DTO
+        Member member = new Member(1, "Jake \"J\" Kai", "Jake@corp.ca", "password", 21, Gender.MALE);
+        String expected = objectMapper.writeValueAsString(new MemberDTOMapper().apply(member));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void writeRowWithNullGender() throws Exception {
+        ResultSet resultSet = row(2, "Jo", "jo@mail.corp", 18, null);
+
+        String actual = write(resultSet);
+
+        Member member = new Member(2, "Jo", "jo@mail.corp", "password", 18, null);
+        String expected = objectMapper.writeValueAsString(new MemberDTOMapper().apply(member));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void writeRowWithSomeFields() throws Exception {
+        MemberFields fields = MemberFields.parse("version,username,roles");
+        // selected as "email, version"
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString(1)).thenReturn("jo@mail.corp");
+        when(resultSet.getLong(2)).thenReturn(3L);
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            underTest.writeRow(resultSet, generator, fields);
+        }
+
+        assertThat(out.toString())
+                .isEqualTo("{\"roles\":[\"ROLE_USER\"],\"username\":\"jo@mail.corp\",\"version\":3}");
+    }
+
+    @Test
+    void writeMemberMatchesWriteRow() throws Exception {
+        Member member = new Member(2, "Jo", "jo@mail.corp", "password", 18, null);
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            underTest.writeMember(member, generator, MemberFields.ALL);
+        }
+
+        assertThat(out.toString()).isEqualTo(write(row(2, "Jo", "jo@mail.corp", 18, null)));
+    }
+
+    private String write(ResultSet resultSet) throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            underTest.writeRow(resultSet, generator);
+        }
+        return out.toString();
+    }
+
+    private static ResultSet row(int id, String name, String email, int age, String gender) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getInt(1)).thenReturn(id);
+        when(resultSet.getString(2)).thenReturn(name);
+        when(resultSet.getString(3)).thenReturn(email);
+        when(resultSet.getInt(4)).thenReturn(age);
+        when(resultSet.getString(5)).thenReturn(gender);
+        return resultSet;
+    }
+}
@@ -0,0 +1,49 @@
+package com.backend.member;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MemberListVersionTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final MemberListVersion underTest = new MemberListVersion(jdbcTemplate);
+
+    @Test
+    void readsOnceThenServesFromMemory() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(4L);
+
+        assertThat(underTest.current()).isEqualTo(4);
+        assertThat(underTest.current()).isEqualTo(4);
+
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void memberChangeRereadsVersion() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(4L, 5L);
+        underTest.current();
+
+        underTest.onMemberChanged(new MemberChangedEvent(
+                MemberChangedEvent.Change.UPDATED, 1, Set.of("jo@mail.corp")));
+
+        assertThat(underTest.current()).isEqualTo(5);
+    }
+
+    @Test
+    void neverStepsBack() {
+        // a slower refresh returning after a newer one
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(7L, 6L);
+
+        underTest.refresh();
+        underTest.refresh();
+
+        assertThat(underTest.current()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,110 @@
+package com.backend.member;
+
+import com.backend.AbstractTestContainer;
+import com.backend.Main;
+import com.backend.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two nodes on one database: a write through one of them evicts the other's
+ * near cache and login cache by NOTIFY, a write behind both their backs does not.
+ */
+class MemberNearCacheTest extends AbstractTestContainer {
+
+    private static final Duration CONVERGENCE = Duration.ofSeconds(2);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        // arguments, application.yml would win over default properties
+        return new SpringApplicationBuilder(Main.class).run(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                "--spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                "--spring.datasource.password=" + postgreSQLContainer.getPassword());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + CONVERGENCE.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("converged within %s", CONVERGENCE).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void writeOnOneNodeEvictsTheOther() throws InterruptedException {
+        MemberService serviceA = nodeA.getBean(MemberService.class);
+        MemberService serviceB = nodeB.getBean(MemberService.class);
+        String email = FAKER.internet().safeEmailAddress() + "." + System.nanoTime();
+        serviceA.addMember(new MemberRegistrationRequest("Before", 30, email, "password", Gender.NA));
+        Integer id = nodeB.getBean("memberDao", MemberDao.class)
+                .selectUserByEmail(email)
+                .map(Member::getId)
+                .orElseThrow();
+
+        // plain sql sends no NOTIFY, node B keeps serving its cached copy
+        getJDBCTemplate().update("UPDATE member SET age = 31 WHERE id = ?", id);
+        assertThat(serviceB.getMember(id).age()).isEqualTo(30);
+
+        serviceA.updateMember(id, new MemberUpdateRequest("After", null, null, null), null);
+        awaitTrue(() -> serviceB.getMember(id).name().equals("After"));
+        assertThat(serviceB.getMember(id).age()).isEqualTo(31);
+
+        serviceA.deleteMemberById(id);
+        awaitTrue(() -> nodeB.getBean("memberDao", MemberDao.class).selectMemberById(id).isEmpty());
+        assertThatThrownBy(() -> serviceB.getMember(id))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void deleteOnOneNodeStopsAuthenticationOnTheOther() throws InterruptedException {
+        MemberService serviceA = nodeA.getBean(MemberService.class);
+        UserDetailsService userDetailsB = nodeB.getBean(MemberUserDetailsService.class);
+        String email = FAKER.internet().safeEmailAddress() + "." + System.nanoTime();
+        serviceA.addMember(new MemberRegistrationRequest("Login", 30, email, "password", Gender.NA));
+        // cached on node B, as after a login there
+        Integer id = ((Member) userDetailsB.loadUserByUsername(email)).getId();
+
+        serviceA.deleteMemberById(id);
+
+        awaitTrue(() -> {
+            try {
+                userDetailsB.loadUserByUsername(email);
+                return false;
+            } catch (UsernameNotFoundException e) {
+                return true;
+            }
+        });
+    }
+}
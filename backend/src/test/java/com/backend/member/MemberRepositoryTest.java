@@ -84,4 +84,41 @@ class MemberRepositoryTest extends AbstractTestContainer {
 
         assertThat(actual).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void insertAllIfEmailAbsentSkipsTakenEmails() {
+        String taken = FAKER.internet().safeEmailAddress();
+        String free = FAKER.internet().safeEmailAddress() + "." + System.nanoTime();
+        repoUnderTest.save(new Member(FAKER.name().fullName(), taken, "password", 30, Gender.NA));
+
+        var actual = repoUnderTest.insertAllIfEmailAbsent(
+                new String[]{"Taken", "Free"},
+                new String[]{taken, free},
+                new String[]{"password", "password"},
+                new Integer[]{30, 31},
+                new String[]{"MALE", "FEMALE"});
+
+        assertThat(actual).containsExactly(free);
+        assertThat(repoUnderTest.existsMemberByEmail(free)).isTrue();
+    }
+
+    @Test
+    void insertAllIfEmailAbsentDefaultsMissingGender() {
+        String email = FAKER.internet().safeEmailAddress() + "." + System.nanoTime();
+
+        repoUnderTest.insertAllIfEmailAbsent(
+                new String[]{"No Gender"},
+                new String[]{email},
+                new String[]{"password"},
+                new Integer[]{30},
+                new String[]{null});
+
+        var actual = repoUnderTest.findAll()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Member::getGender)
+                .findFirst()
+                .orElseThrow();
+        assertThat(actual).isEqualTo(Gender.NA);
+    }
+}
@@ -0,0 +1,106 @@
+package com.backend.member;
+
+import com.backend.AbstractTestContainer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the plans of the search queries over enough rows for the planner to care
+class MemberSearchIndexTest extends AbstractTestContainer {
+
+    private static final int LIMIT = 21;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seed() {
+        jdbcTemplate = getJDBCTemplate();
+        jdbcTemplate.update("""
+                INSERT INTO member(name, email, password, age, gender)
+                SELECT chr(65 + i % 26) || substr(md5(i::text), 1, 8),
+                       'member' || i || '@search.test',
+                       'password',
+                       16 + i % 84,
+                       (ARRAY['MALE', 'FEMALE', 'NA'])[1 + i % 3]
+                FROM generate_series(1, 100000) i
+                """);
+        // statistics for the planner, a visibility map for index only scans
+        jdbcTemplate.execute("VACUUM ANALYZE member");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        jdbcTemplate.update("DELETE FROM member WHERE email LIKE '%@search.test'");
+    }
+
+    private static String plan(MemberSearch search, MemberSearch.Keyset after, MemberFields fields) {
+        MemberJdbcDataAccessService.SearchQuery query =
+                MemberJdbcDataAccessService.searchQuery(search, after, LIMIT, fields);
+        return String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN " + query.sql(), String.class, query.args().toArray()));
+    }
+
+    private static MemberSearch.Keyset keyset(MemberSearch.Sort sort) {
+        return switch (sort) {
+            case ID -> new MemberSearch.Keyset(50_000, 50_000);
+            case NAME -> new MemberSearch.Keyset("Kb", 50_000);
+            case AGE -> new MemberSearch.Keyset(35, 50_000);
+        };
+    }
+
+    @Test
+    void everyFilterCombinationAndSortIsAnIndexScan() {
+        List<String> seqScans = new ArrayList<>();
+        for (Integer[] ages : List.of(new Integer[]{null, null}, new Integer[]{30, 40}, new Integer[]{null, 20})) {
+            for (Gender gender : Arrays.asList(null, Gender.FEMALE)) {
+                for (String namePrefix : Arrays.asList(null, "Ka")) {
+                    for (MemberSearch.Sort sort : MemberSearch.Sort.values()) {
+                        for (boolean descending : List.of(false, true)) {
+                            MemberSearch search = new MemberSearch(
+                                    ages[0], ages[1], gender, namePrefix, sort, descending);
+                            for (MemberSearch.Keyset after : Arrays.asList(null, keyset(sort))) {
+                                String plan = plan(search, after, MemberFields.ALL);
+                                if (plan.contains("Seq Scan") || !plan.contains("Index")) {
+                                    seqScans.add(search + " after " + after + "\n" + plan);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        assertThat(seqScans).isEmpty();
+    }
+
+    @Test
+    void namePrefixSeeksIntoTheNameIndex() {
+        MemberSearch search = MemberSearch.parse(null, null, null, "Ka", "name");
+
+        assertThat(plan(search, null, MemberFields.ALL))
+                .contains("Index Scan using member_name_id_idx")
+                .contains("Index Cond: (((name)::text >= 'Ka'::text) AND ((name)::text < 'Kb'::text))");
+    }
+
+    @Test
+    void genderAndAgeRangeSeekIntoTheGenderAgeIndex() {
+        MemberSearch search = MemberSearch.parse(30, 40, "female", null, "age,desc");
+
+        assertThat(plan(search, keyset(MemberSearch.Sort.AGE), MemberFields.ALL))
+                .contains("Index Scan Backward using member_gender_age_id_idx");
+    }
+
+    @Test
+    void narrowFieldsAreReadFromTheIndexOnly() {
+        MemberSearch search = MemberSearch.parse(30, null, "male", "Ka", "name");
+
+        assertThat(plan(search, null, MemberFields.parse("id,name,age,gender")))
+                .contains("Index Only Scan using member_");
+    }
+}
@@ -0,0 +1,64 @@
+package com.backend.member;
+
+import com.backend.exceptions.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSearchTest {
+
+    @Test
+    void blankParametersFilterNothing() {
+        MemberSearch actual = MemberSearch.parse(null, null, " ", "", null);
+
+        assertThat(actual).isEqualTo(new MemberSearch(
+                null, null, null, null, MemberSearch.Sort.ID, false));
+    }
+
+    @Test
+    void parsesGenderAndSortDirection() {
+        MemberSearch actual = MemberSearch.parse(18, 30, "female", "Jo", "age,desc");
+
+        assertThat(actual).isEqualTo(new MemberSearch(
+                18, 30, Gender.FEMALE, "Jo", MemberSearch.Sort.AGE, true));
+    }
+
+    @Test
+    void willThrowWhenSearchIsInvalid() {
+        assertThatThrownBy(() -> MemberSearch.parse(40, 30, null, null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("minAge [40] is greater than maxAge [30]");
+        assertThatThrownBy(() -> MemberSearch.parse(null, null, "other", null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("unknown gender [other], pick from MALE, FEMALE, NA");
+        // only indexed columns sort
+        assertThatThrownBy(() -> MemberSearch.parse(null, null, null, null, "email"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("unknown sort [email], pick from id, name, age");
+        assertThatThrownBy(() -> MemberSearch.parse(null, null, null, null, "age,up"))
+                .isInstanceOf(RequestValidationException.class);
+    }
+
+    @Test
+    void cursorCarriesTheSortValue() {
+        String cursor = MemberCursor.encode(MemberSearch.Sort.NAME, "Jo: the second", 7);
+
+        assertThat(MemberCursor.decode(cursor, MemberSearch.Sort.NAME))
+                .isEqualTo(new MemberSearch.Keyset("Jo: the second", 7));
+        // a page cursor is an id sorted one
+        assertThat(MemberCursor.decode(MemberCursor.encode(7), MemberSearch.Sort.ID))
+                .isEqualTo(new MemberSearch.Keyset(7, 7));
+    }
+
+    @Test
+    void willThrowWhenCursorIsForAnotherSort() {
+        String cursor = MemberCursor.encode(MemberSearch.Sort.NAME, "Jo", 7);
+
+        assertThatThrownBy(() -> MemberCursor.decode(cursor, MemberSearch.Sort.AGE))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("invalid cursor [%s]".formatted(cursor));
+        assertThatThrownBy(() -> MemberCursor.decode(cursor, MemberSearch.Sort.ID))
+                .isInstanceOf(RequestValidationException.class);
+    }
+}
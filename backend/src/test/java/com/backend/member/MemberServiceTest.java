@@ -1,6 +1,7 @@
 package com.backend.member;
 
 import com.backend.exceptions.DuplicateResourceException;
+import com.backend.exceptions.PreconditionFailedException;
 import com.backend.exceptions.RequestValidationException;
 import com.backend.exceptions.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,9 +10,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -24,12 +32,14 @@ class MemberServiceTest {
     private MemberDao memberDao;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     private MemberService underTest;
     private final MemberDTOMapper memberDTOMapper = new MemberDTOMapper();
 
     @BeforeEach
     void setUp() {
-        underTest = new MemberService(memberDao, passwordEncoder, memberDTOMapper);
+        underTest = new MemberService(memberDao, passwordEncoder, memberDTOMapper, eventPublisher);
     }
 
     @Test
@@ -39,6 +49,32 @@ class MemberServiceTest {
         verify(memberDao).selectAllMembers();
     }
 
+    @Test
+    void getMembersByIdsKeepsTheRequestedOrder() {
+        when(memberDao.selectMembersByIds(Set.of(5, 3, 9))).thenReturn(List.of(
+                new Member(3, "Jo", "jo@mail.corp", "password", 18, Gender.MALE),
+                new Member(5, "Jay", "jay@mail.corp", "password", 25, Gender.MALE)
+        ));
+
+        MemberLookup actual = underTest.getMembersByIds(List.of(5, 9, 3, 5));
+
+        assertThat(actual.members()).extracting(MemberDTO::id).containsExactly(5, 3);
+        assertThat(actual.missing()).containsExactly(9);
+        verify(memberDao).selectMembersByIds(Set.of(5, 3, 9));
+    }
+
+    @Test
+    void willThrowWhenIdsOutOfRange() {
+        assertThatThrownBy(() -> underTest.getMembersByIds(List.of()))
+                .isInstanceOf(RequestValidationException.class);
+        List<Integer> tooMany = IntStream.rangeClosed(0, MemberService.MAX_PAGE_SIZE).boxed().toList();
+        assertThatThrownBy(() -> underTest.getMembersByIds(tooMany))
+                .isInstanceOf(RequestValidationException.class);
+        assertThatThrownBy(() -> underTest.getMembersByIds(Arrays.asList(1, null)))
+                .isInstanceOf(RequestValidationException.class);
+        verifyNoInteractions(memberDao);
+    }
+
     @Test
     void getMember() {
         int id = 7;
@@ -71,8 +107,7 @@ class MemberServiceTest {
     @Test
     void addMember() {
         String email = "jo@mail.corp";
-        when(memberDao.existsMemberWithEmail(email))
-                .thenReturn(false);
+        when(memberDao.insertMember(any())).thenReturn(Optional.of(7));
 
         MemberRegistrationRequest request = new MemberRegistrationRequest(
                 "Jo", 18, email, "password", Gender.MALE
@@ -96,12 +131,17 @@ class MemberServiceTest {
         assertThat(capturedMember.getEmail()).isEqualTo(request.email());
         assertThat(capturedMember.getPassword()).isEqualTo(passwordHash);
         assertThat(capturedMember.getAge()).isEqualTo(request.age());
+        // no separate exists check, the insert itself answers it
+        verify(memberDao, never()).existsMemberWithEmail(any());
+        verify(eventPublisher).publishEvent(new MemberChangedEvent(
+                MemberChangedEvent.Change.CREATED, 7, Set.of(email)));
     }
 
     @Test
     void addMemberThrowExceptionWhenEmailExist(){
         String email = "jo@mail.corp";
-        when(memberDao.existsMemberWithEmail(email)).thenReturn(true);
+        // the insert hit the unique email
+        when(memberDao.insertMember(any())).thenReturn(Optional.empty());
         String password = passwordEncoder.encode("password");
 
         MemberRegistrationRequest request = new MemberRegistrationRequest(
@@ -113,19 +153,112 @@ class MemberServiceTest {
                 .isInstanceOf(DuplicateResourceException.class)
                 .hasMessage("Email already taken!");
 
-        // verify no member is inserted
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void addMembers() {
+        List<MemberRegistrationRequest> requests = List.of(
+                new MemberRegistrationRequest("Jo", 18, "jo@mail.corp", "password", Gender.MALE),
+                new MemberRegistrationRequest("Jay", 25, "jay@mail.corp", "password", Gender.MALE),
+                new MemberRegistrationRequest("Jo", 18, "jo@mail.corp", "password", Gender.MALE),
+                new MemberRegistrationRequest(null, 30, "kai@mail.corp", "password", Gender.NA),
+                new MemberRegistrationRequest("Lee", 40, "lee@mail.corp", "password", Gender.FEMALE)
+        );
+        when(memberDao.selectExistingEmails(Set.of("jo@mail.corp", "jay@mail.corp", "lee@mail.corp")))
+                .thenReturn(Set.of("jay@mail.corp"));
+        when(passwordEncoder.encode("password")).thenReturn("$2132546154cvav");
+        when(memberDao.insertMembers(any())).thenReturn(Set.of("jo@mail.corp", "lee@mail.corp"));
+
+        List<MemberBatchResult> actual = underTest.addMembers(requests);
+
+        assertThat(actual).extracting(MemberBatchResult::status).containsExactly(
+                MemberBatchResult.Status.CREATED,
+                MemberBatchResult.Status.DUPLICATE,
+                MemberBatchResult.Status.DUPLICATE,
+                MemberBatchResult.Status.INVALID,
+                MemberBatchResult.Status.CREATED
+        );
+        assertThat(actual).extracting(MemberBatchResult::index).containsExactly(0, 1, 2, 3, 4);
+
+        // a single batch insert with hashed passwords
+        ArgumentCaptor<List<Member>> membersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(memberDao).insertMembers(membersCaptor.capture());
+        assertThat(membersCaptor.getValue())
+                .extracting(Member::getEmail)
+                .containsExactly("jo@mail.corp", "lee@mail.corp");
+        assertThat(membersCaptor.getValue())
+                .extracting(Member::getPassword)
+                .containsOnly("$2132546154cvav");
         verify(memberDao, never()).insertMember(any());
     }
 
+    @Test
+    void addMembersReportsEmailTakenSinceTheCheckAsDuplicate() {
+        List<MemberRegistrationRequest> requests = List.of(
+                new MemberRegistrationRequest("Jo", 18, "jo@mail.corp", "password", Gender.MALE),
+                new MemberRegistrationRequest("Lee", 40, "lee@mail.corp", "password", Gender.FEMALE)
+        );
+        when(memberDao.selectExistingEmails(Set.of("jo@mail.corp", "lee@mail.corp"))).thenReturn(Set.of());
+        when(passwordEncoder.encode("password")).thenReturn("$2132546154cvav");
+        // lee registered concurrently, the insert skipped the row
+        when(memberDao.insertMembers(any())).thenReturn(Set.of("jo@mail.corp"));
+
+        List<MemberBatchResult> actual = underTest.addMembers(requests);
+
+        assertThat(actual).extracting(MemberBatchResult::status).containsExactly(
+                MemberBatchResult.Status.CREATED,
+                MemberBatchResult.Status.DUPLICATE
+        );
+        ArgumentCaptor<MemberChangedEvent> eventCaptor = ArgumentCaptor.forClass(MemberChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().emails()).containsExactly("jo@mail.corp");
+    }
+
+    @Test
+    void addMembersSkipsInsertWhenAllRowsRejected() {
+        List<MemberRegistrationRequest> requests = List.of(
+                new MemberRegistrationRequest("Jo", 18, "jo@mail.corp", "password", Gender.MALE)
+        );
+        when(memberDao.selectExistingEmails(Set.of("jo@mail.corp"))).thenReturn(Set.of("jo@mail.corp"));
+
+        List<MemberBatchResult> actual = underTest.addMembers(requests);
+
+        assertThat(actual).extracting(MemberBatchResult::status)
+                .containsExactly(MemberBatchResult.Status.DUPLICATE);
+        verify(memberDao, never()).insertMembers(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void willThrowWhenBatchIsEmpty() {
+        assertThatThrownBy(() -> underTest.addMembers(List.of()))
+                .isInstanceOf(RequestValidationException.class);
+    }
+
     @Test
     void deleteMemberById() {
         int id = 10;
-
-        when(memberDao.existsMemberWithId(id)).thenReturn(true);
+        when(memberDao.deleteMemberById(id)).thenReturn(Optional.of("jo@mail.corp"));
 
         underTest.deleteMemberById(id);
 
-        verify(memberDao).deleteMemberById(id);
+        verify(memberDao, never()).selectMemberById(any());
+        verify(eventPublisher).publishEvent(new MemberChangedEvent(
+                MemberChangedEvent.Change.DELETED, id, Set.of("jo@mail.corp")));
+    }
+
+    @Test
+    void willThrowWhenDeleteMemberNotFound() {
+        int id = 10;
+
+        when(memberDao.deleteMemberById(id)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.deleteMemberById(id))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("member with id [%s] does not exist".formatted(id));
+
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -141,19 +274,19 @@ class MemberServiceTest {
         String updateEmail = email + ".co";
         MemberUpdateRequest updateRequest = new MemberUpdateRequest("Joe", updateEmail, 19, gender);
         when(memberDao.existsMemberWithEmail(updateEmail)).thenReturn(false);
+        // unchanged gender is left out of the update
+        MemberUpdateRequest changes = new MemberUpdateRequest("Joe", updateEmail, 19, null);
+        when(memberDao.updateMemberFields(id, changes, 0L)).thenReturn(1);
 
-        underTest.updateMember(id, updateRequest);
-
-        ArgumentCaptor<Member> memberArgumentCaptor = ArgumentCaptor.forClass(Member.class);
+        long version = underTest.updateMember(id, updateRequest, 0L);
 
-        verify(memberDao).updateMember(memberArgumentCaptor.capture());
-
-        Member capturedMember = memberArgumentCaptor.getValue();
-
-        assertThat(capturedMember.getName()).isEqualTo(updateRequest.name());
-        assertThat(capturedMember.getEmail()).isEqualTo(updateRequest.email());
-        assertThat(capturedMember.getAge()).isEqualTo(updateRequest.age());
+        assertThat(version).isEqualTo(1);
+        verify(memberDao).updateMemberFields(id, changes, 0L);
+        verify(memberDao, never()).updateMember(any());
 
+        // old and new email are both invalidated
+        verify(eventPublisher).publishEvent(new MemberChangedEvent(
+                MemberChangedEvent.Change.UPDATED, id, Set.of(email, updateEmail)));
     }
 
     @Test
@@ -169,10 +302,91 @@ class MemberServiceTest {
                                                                     member.getAge(),
                                                                     member.getGender());
 
-        assertThatThrownBy(() -> underTest.updateMember(id, updateRequest))
+        assertThatThrownBy(() -> underTest.updateMember(id, updateRequest, null))
                 .isInstanceOf(RequestValidationException.class).hasMessage("no data changes found");
 
         // verify members do not change
-        verify(memberDao, never()).updateMember(any());
+        verify(memberDao, never()).updateMemberFields(any(), any(), any());
+    }
+
+    @Test
+    void updateMemberKeepingEmail() {
+        int id = 8;
+        String email = "jo@mail.corp";
+        Member member = new Member(id, "Jo", email, "password", 18, Gender.MALE);
+        when(memberDao.selectMemberById(id)).thenReturn(Optional.of(member));
+        when(memberDao.updateMemberFields(id, new MemberUpdateRequest("Joe", null, null, null), 0L))
+                .thenReturn(1);
+
+        underTest.updateMember(id, new MemberUpdateRequest("Joe", null, null, null), null);
+
+        verify(eventPublisher).publishEvent(new MemberChangedEvent(
+                MemberChangedEvent.Change.UPDATED, id, Set.of(email)));
+    }
+
+    @Test
+    void updateMemberDeletedMeanwhile() {
+        int id = 8;
+        Member member = new Member(id, "Jo", "jo@mail.corp", "password", 18, Gender.MALE);
+        when(memberDao.selectMemberById(id)).thenReturn(Optional.of(member));
+        when(memberDao.updateMemberFields(id, new MemberUpdateRequest(null, null, 19, null), 0L))
+                .thenReturn(0);
+        when(memberDao.existsMemberWithId(id)).thenReturn(false);
+
+        assertThatThrownBy(() -> underTest.updateMember(id, new MemberUpdateRequest(null, null, 19, null), 0L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("member with id [%s] not found".formatted(id));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateMemberAtStaleVersion() {
+        int id = 8;
+        Member member = new Member(id, "Jo", "jo@mail.corp", "password", 18, Gender.MALE);
+        member.setVersion(3);
+        when(memberDao.selectMemberById(id)).thenReturn(Optional.of(member));
+
+        assertThatThrownBy(() -> underTest.updateMember(id, new MemberUpdateRequest(null, null, 19, null), 2L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("member with id [%s] has changed, it is at version [3]".formatted(id));
+
+        verify(memberDao, never()).updateMemberFields(any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateMemberChangedMeanwhile() {
+        int id = 8;
+        Member member = new Member(id, "Jo", "jo@mail.corp", "password", 18, Gender.MALE);
+        when(memberDao.selectMemberById(id)).thenReturn(Optional.of(member));
+        // another request wrote between the read and the conditional update
+        when(memberDao.updateMemberFields(id, new MemberUpdateRequest(null, null, 19, null), 0L))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+        when(memberDao.existsMemberWithId(id)).thenReturn(true);
+
+        assertThatThrownBy(() -> underTest.updateMember(id, new MemberUpdateRequest(null, null, 19, null), 0L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("member with id [%s] was changed by another request".formatted(id));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateMemberToEmailTakenMeanwhile() {
+        int id = 8;
+        Member member = new Member(id, "Jo", "jo@mail.corp", "password", 18, Gender.MALE);
+        when(memberDao.selectMemberById(id)).thenReturn(Optional.of(member));
+        when(memberDao.existsMemberWithEmail("joe@mail.corp")).thenReturn(false);
+        // registered between the check and the update
+        when(memberDao.updateMemberFields(id, new MemberUpdateRequest(null, "joe@mail.corp", null, null), 0L))
+                .thenThrow(new DataIntegrityViolationException("member_email_uniq"));
+
+        assertThatThrownBy(() -> underTest.updateMember(
+                id, new MemberUpdateRequest(null, "joe@mail.corp", null, null), 0L))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("email already taken");
+
+        verifyNoInteractions(eventPublisher);
     }
-}
\ No newline at end of file
+}
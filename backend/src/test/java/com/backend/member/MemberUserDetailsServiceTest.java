@@ -0,0 +1,105 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberUserDetailsServiceTest {
+
+    @Mock
+    private MemberDao memberDao;
+    private MemberUserDetailsService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new MemberUserDetailsService(
+                memberDao, new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    void loadsMemberOnceForRepeatedLookups() {
+        String email = "jo@mail.corp";
+        Member member = new Member(1, "Jo", email, "password", 18, Gender.MALE);
+        when(memberDao.selectUserByEmail(email)).thenReturn(Optional.of(member));
+
+        underTest.loadUserByUsername(email);
+        var actual = underTest.loadUserByUsername(email);
+
+        assertThat(actual).isEqualTo(member);
+        verify(memberDao, times(1)).selectUserByEmail(email);
+    }
+
+    @Test
+    void unknownEmailIsNotCached() {
+        String email = "jo@mail.corp";
+        when(memberDao.selectUserByEmail(email)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> underTest.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        verify(memberDao, times(2)).selectUserByEmail(email);
+    }
+
+    @Test
+    void memberChangeEvictsCachedEntry() {
+        String email = "jo@mail.corp";
+        Member member = new Member(1, "Jo", email, "password", 18, Gender.MALE);
+        when(memberDao.selectUserByEmail(email))
+                .thenReturn(Optional.of(member))
+                .thenReturn(Optional.empty());
+
+        underTest.loadUserByUsername(email);
+        underTest.onMemberChanged(new MemberChangedEvent(
+                MemberChangedEvent.Change.DELETED, 1, Set.of(email)));
+
+        assertThatThrownBy(() -> underTest.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void nearCacheEvictionEvictsCachedEntry() {
+        String email = "jo@mail.corp";
+        Member member = new Member(1, "Jo", email, "password", 18, Gender.MALE);
+        when(memberDao.selectUserByEmail(email))
+                .thenReturn(Optional.of(member))
+                .thenReturn(Optional.empty());
+
+        underTest.loadUserByUsername(email);
+        // a delete on another node
+        underTest.onMemberCacheEvicted(MemberCacheEvictedEvent.of(Set.of(email)));
+
+        assertThatThrownBy(() -> underTest.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void updatePasswordStoresNewHashAndEvicts() {
+        String email = "jo@mail.corp";
+        Member member = new Member(1, "Jo", email, "old-hash", 18, Gender.MALE);
+        when(memberDao.selectUserByEmail(email)).thenReturn(Optional.of(member));
+        underTest.loadUserByUsername(email);
+
+        var actual = underTest.updatePassword(member, "new-hash");
+
+        assertThat(actual.getPassword()).isEqualTo("new-hash");
+        assertThat(actual).isEqualTo(member);
+        verify(memberDao).updateMemberPassword(email, "new-hash");
+        underTest.loadUserByUsername(email);
+        verify(memberDao, times(2)).selectUserByEmail(email);
+    }
+}
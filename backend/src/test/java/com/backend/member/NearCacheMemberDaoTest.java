@@ -0,0 +1,246 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NearCacheMemberDaoTest {
+
+    private final MemberDao delegate = mock(MemberDao.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private NearCacheMemberDao underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = nearCache(true);
+    }
+
+    private NearCacheMemberDao nearCache(boolean enabled) {
+        return new NearCacheMemberDao(delegate, jdbcTemplate, eventPublisher,
+                new MemberDaoProperties.NearCache(enabled, Duration.ofMinutes(1), 100,
+                        "member_changed", Duration.ofSeconds(1)),
+                new SimpleMeterRegistry());
+    }
+
+    private static Member member(int id, String email) {
+        return new Member(id, "Jo", email, "password", 30, Gender.NA);
+    }
+
+    @Test
+    void readsEachMemberOnceByIdOrEmail() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+
+        underTest.selectMemberById(1);
+        Optional<Member> byId = underTest.selectMemberById(1);
+        Optional<Member> byEmail = underTest.selectUserByEmail("jo@mail.corp");
+
+        assertThat(byId).map(Member::getEmail).contains("jo@mail.corp");
+        assertThat(byEmail).map(Member::getId).contains(1);
+        verify(delegate).selectMemberById(1);
+        verify(delegate, never()).selectUserByEmail(any());
+    }
+
+    @Test
+    void handsOutCopies() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+
+        underTest.selectMemberById(1).orElseThrow().setName("Changed");
+
+        assertThat(underTest.selectMemberById(1)).map(Member::getName).contains("Jo");
+    }
+
+    @Test
+    void fetchesOnlyUncachedIds() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+        when(delegate.selectMembersByIds(List.of(2, 3))).thenReturn(List.of(member(2, "jay@mail.corp")));
+        underTest.selectMemberById(1);
+
+        List<Member> members = underTest.selectMembersByIds(List.of(1, 2, 3));
+        underTest.selectMemberById(2);
+
+        assertThat(members).extracting(Member::getId).containsExactlyInAnyOrder(1, 2);
+        verify(delegate, never()).selectMemberById(2);
+    }
+
+    @Test
+    void projectionsShareOnePasswordFreeProfile() {
+        Member profile = new Member(1, "Jo", "jo@mail.corp", null, 30, Gender.NA);
+        when(delegate.selectMemberById(1, MemberFields.ALL)).thenReturn(Optional.of(profile));
+
+        underTest.selectMemberById(1, MemberFields.parse("name"));
+        Optional<Member> actual = underTest.selectMemberById(1, MemberFields.parse("id,email"));
+
+        assertThat(actual).map(Member::getEmail).contains("jo@mail.corp");
+        assertThat(actual).map(Member::getPassword).isEmpty();
+        verify(delegate).selectMemberById(1, MemberFields.ALL);
+    }
+
+    @Test
+    void projectionsOfACachedMemberLeaveOutThePassword() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+        underTest.selectMemberById(1);
+
+        Optional<Member> actual = underTest.selectMemberById(1, MemberFields.parse("name"));
+
+        assertThat(actual).map(Member::getName).contains("Jo");
+        assertThat(actual).map(Member::getPassword).isEmpty();
+        verify(delegate, never()).selectMemberById(eq(1), any(MemberFields.class));
+    }
+
+    @Test
+    void projectedLookupFetchesOnlyUncachedProfiles() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+        when(delegate.selectMembersByIds(List.of(2), MemberFields.ALL))
+                .thenReturn(List.of(new Member(2, "Jay", "jay@mail.corp", null, 40, Gender.NA)));
+        underTest.selectMemberById(1);
+
+        List<Member> members = underTest.selectMembersByIds(List.of(1, 2), MemberFields.parse("name"));
+        underTest.selectMemberById(2, MemberFields.parse("name"));
+
+        assertThat(members).extracting(Member::getId).containsExactlyInAnyOrder(1, 2);
+        assertThat(members).extracting(Member::getPassword).containsOnlyNulls();
+        verify(delegate, never()).selectMemberById(eq(2), any(MemberFields.class));
+    }
+
+    @Test
+    void memberChangeEvictsTheProfile() {
+        Member profile = new Member(1, "Jo", "jo@mail.corp", null, 30, Gender.NA);
+        when(delegate.selectMemberById(1, MemberFields.ALL)).thenReturn(Optional.of(profile));
+        underTest.selectMemberById(1, MemberFields.ALL);
+
+        underTest.onMemberChanged(new MemberChangedEvent(
+                MemberChangedEvent.Change.UPDATED, 1, Set.of("jo@mail.corp")));
+        underTest.selectMemberById(1, MemberFields.ALL);
+
+        verify(delegate, times(2)).selectMemberById(1, MemberFields.ALL);
+    }
+
+    @Test
+    void doesNotCacheUnknownMembers() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.empty());
+
+        underTest.selectMemberById(1);
+        underTest.selectMemberById(1);
+
+        verify(delegate, times(2)).selectMemberById(1);
+    }
+
+    @Test
+    void memberChangeEvictsAndNotifies() {
+        when(delegate.selectUserByEmail("jo@mail.corp")).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+        underTest.selectUserByEmail("jo@mail.corp");
+
+        underTest.onMemberChanged(new MemberChangedEvent(
+                MemberChangedEvent.Change.UPDATED, 1, Set.of("jo@mail.corp", "new@mail.corp")));
+        underTest.selectMemberById(1);
+        underTest.selectUserByEmail("jo@mail.corp");
+
+        verify(delegate).selectMemberById(1);
+        verify(delegate, times(2)).selectUserByEmail("jo@mail.corp");
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq("member_changed"), argThat((String payload) -> payload.startsWith("{\"id\":1,")
+                        && payload.contains("\"jo@mail.corp\"") && payload.contains("\"new@mail.corp\"")));
+    }
+
+    @Test
+    void newMembersAreNotSent() {
+        underTest.onMemberChanged(new MemberChangedEvent(
+                MemberChangedEvent.Change.CREATED, 1, Set.of("jo@mail.corp")));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void notificationEvictsByIdAndEmail() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+        underTest.selectMemberById(1);
+
+        underTest.onNotification("{\"id\":1,\"emails\":[]}");
+        underTest.selectUserByEmail("jo@mail.corp");
+
+        verify(delegate).selectUserByEmail("jo@mail.corp");
+        // the email of the member cached by id is passed on
+        verify(eventPublisher).publishEvent(MemberCacheEvictedEvent.of(Set.of("jo@mail.corp")));
+    }
+
+    @Test
+    void notificationWithoutEmailsEvictsById() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+        underTest.selectMemberById(1);
+
+        underTest.onNotification("{\"id\":1}");
+        underTest.selectMemberById(1);
+
+        verify(delegate, times(2)).selectMemberById(1);
+    }
+
+    @Test
+    void notificationOfAnUncachedIdEvictsEverythingAbove() {
+        underTest.onNotification("{\"id\":1,\"emails\":[]}");
+
+        verify(eventPublisher).publishEvent(MemberCacheEvictedEvent.everything());
+    }
+
+    @Test
+    void unreadableNotificationClearsTheCache() {
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+        underTest.selectMemberById(1);
+
+        underTest.onNotification("not json");
+        underTest.selectMemberById(1);
+
+        verify(delegate, times(2)).selectMemberById(1);
+    }
+
+    @Test
+    void loadOverlappingAnEvictionIsNotCached() {
+        // the write lands while the old row is on its way back
+        when(delegate.selectMemberById(1)).thenAnswer(invocation -> {
+            underTest.onNotification("{\"id\":1,\"emails\":[]}");
+            return Optional.of(member(1, "jo@mail.corp"));
+        });
+
+        underTest.selectMemberById(1);
+        underTest.selectMemberById(1);
+
+        verify(delegate, times(2)).selectMemberById(1);
+    }
+
+    @Test
+    void passwordChangeIsSentByEmail() {
+        underTest.updateMemberPassword("jo@mail.corp", "hash");
+
+        verify(delegate).updateMemberPassword("jo@mail.corp", "hash");
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq("member_changed"), eq("{\"id\":null,\"emails\":[\"jo@mail.corp\"]}"));
+    }
+
+    @Test
+    void disabledPassesThrough() {
+        underTest = nearCache(false);
+        when(delegate.selectMemberById(1)).thenReturn(Optional.of(member(1, "jo@mail.corp")));
+
+        underTest.selectMemberById(1);
+        underTest.selectMemberById(1);
+        underTest.onMemberChanged(new MemberChangedEvent(
+                MemberChangedEvent.Change.DELETED, 1, Set.of("jo@mail.corp")));
+
+        verify(delegate, times(2)).selectMemberById(1);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,125 @@
+package com.backend.member;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoutingMemberDaoTest {
+
+    @Mock
+    private MemberDao jpa;
+    @Mock
+    private MemberDao jdbc;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private static final MemberDaoProperties.Shadow NO_SHADOW =
+            new MemberDaoProperties.Shadow(0, Set.of(), 1, 1);
+    private static final MemberDaoProperties.EmailFilter NO_FILTER =
+            new MemberDaoProperties.EmailFilter(false, 1, 0.01, Duration.ofHours(1));
+    private static final MemberDaoProperties.NearCache NO_NEAR_CACHE =
+            new MemberDaoProperties.NearCache(false, Duration.ofMinutes(1), 1, "member_changed", Duration.ofSeconds(1));
+    private static final MemberDaoProperties.SingleFlight NO_SINGLE_FLIGHT =
+            new MemberDaoProperties.SingleFlight(false, Duration.ofSeconds(1));
+
+    private RoutingMemberDao routing(Map<String, String> routes) {
+        return new RoutingMemberDao(Map.of("jpa", jpa, "jdbc", jdbc),
+                new MemberDaoProperties("jpa", routes, NO_SHADOW, NO_FILTER, NO_NEAR_CACHE, NO_SINGLE_FLIGHT), meterRegistry);
+    }
+
+    @Test
+    void routesConfiguredOperationsAndDefaultsTheRest() {
+        RoutingMemberDao underTest = routing(Map.of("selectMemberById", "jdbc"));
+        Member member = new Member(1, "Jo", "jo@mail.corp", "password", 18, Gender.MALE);
+        when(jdbc.selectMemberById(1)).thenReturn(Optional.of(member));
+
+        assertThat(underTest.selectMemberById(1)).contains(member);
+        underTest.updateMember(member);
+
+        verify(jdbc).selectMemberById(1);
+        verify(jpa).updateMember(member);
+        verifyNoMoreInteractions(jpa, jdbc);
+        assertThat(meterRegistry.get("member.dao")
+                .tag("operation", "selectMemberById")
+                .tag("backend", "jdbc")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("member.dao")
+                .tag("operation", "updateMember")
+                .tag("backend", "jpa")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownOperation() {
+        assertThatThrownBy(() -> routing(Map.of("selectMemberByName", "jdbc")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("selectMemberByName");
+    }
+
+    @Test
+    void rejectsShadowedWrites() {
+        for (String write : List.of("insertMember", "deleteMemberById", "updateMemberFields")) {
+            assertThatThrownBy(() -> new RoutingMemberDao(Map.of("jpa", jpa, "jdbc", jdbc),
+                    new MemberDaoProperties("jpa", Map.of(), new MemberDaoProperties.Shadow(1.0, Set.of(write), 1, 1),
+                            NO_FILTER, NO_NEAR_CACHE, NO_SINGLE_FLIGHT), meterRegistry))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(write);
+        }
+    }
+
+    @Test
+    void rejectsUnknownBackend() {
+        assertThatThrownBy(() -> routing(Map.of("selectMemberById", "mongo")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("mongo");
+    }
+
+    @Test
+    void shadowsSampledReadsOnTheOtherBackend() {
+        RoutingMemberDao underTest = new RoutingMemberDao(Map.of("jpa", jpa, "jdbc", jdbc),
+                new MemberDaoProperties("jpa", Map.of(),
+                        new MemberDaoProperties.Shadow(1.0, Set.of("selectUserByEmail"), 1, 10), NO_FILTER, NO_NEAR_CACHE, NO_SINGLE_FLIGHT),
+                meterRegistry);
+        String email = "jo@mail.corp";
+        Member member = new Member(1, "Jo", email, "password", 18, Gender.MALE);
+        Member stale = new Member(1, "Jo", email, "old-password", 18, Gender.MALE);
+        when(jpa.selectUserByEmail(email)).thenReturn(Optional.of(member));
+        when(jdbc.selectUserByEmail(email)).thenReturn(Optional.of(member), Optional.of(stale));
+
+        assertThat(underTest.selectUserByEmail(email)).contains(member);
+        assertThat(underTest.selectUserByEmail(email)).contains(member);
+
+        verify(jdbc, timeout(5000).times(2)).selectUserByEmail(email);
+        await(() -> {
+            var mismatches = meterRegistry.find("member.dao.shadow").tag("outcome", "mismatch").counter();
+            return mismatches != null && mismatches.count() == 1;
+        });
+        assertThat(meterRegistry.get("member.dao.shadow").tag("outcome", "match").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("member.dao.shadow").tag("outcome", "mismatch").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("member.dao.shadow.latency")
+                .tag("backend", "jdbc").tag("role", "shadow").timer().count()).isEqualTo(2);
+        underTest.shutdown();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.backend.member;
+
+import com.backend.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class SingleFlightMemberDaoTest {
+
+    private final MemberDao delegate = mock(MemberDao.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private SingleFlightMemberDao singleFlight(boolean enabled, Duration maxWait) {
+        return new SingleFlightMemberDao(delegate,
+                new MemberDaoProperties.SingleFlight(enabled, maxWait), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    // the delegate answers once released
+    private void slowLookup(Runnable answer) {
+        when(delegate.selectMemberById(1)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            answer.run();
+            return Optional.of(new Member(1, "Jo", "jo@mail.corp", "password", 30, Gender.NA));
+        });
+    }
+
+    private double calls(String outcome) {
+        return meterRegistry.get("member.dao.single.flight.calls")
+                .tag("operation", "selectMemberById")
+                .tag("outcome", outcome)
+                .counter().count();
+    }
+
+    // starts a leader and a caller that joins it
+    private CompletableFuture<Optional<Member>>[] leaderAndFollower(SingleFlightMemberDao underTest)
+            throws InterruptedException {
+        CompletableFuture<Optional<Member>> leader =
+                CompletableFuture.supplyAsync(() -> underTest.selectMemberById(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Optional<Member>> follower =
+                CompletableFuture.supplyAsync(() -> underTest.selectMemberById(1));
+        while (calls("coalesced") < 1) {
+            Thread.onSpinWait();
+        }
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Optional<Member>>[] both = new CompletableFuture[]{leader, follower};
+        return both;
+    }
+
+    @Test
+    void concurrentLookupsShareOneCall() throws Exception {
+        slowLookup(() -> {});
+        SingleFlightMemberDao underTest = singleFlight(true, Duration.ofSeconds(5));
+
+        CompletableFuture<Optional<Member>>[] both = leaderAndFollower(underTest);
+        release.countDown();
+
+        Member leader = both[0].get(5, TimeUnit.SECONDS).orElseThrow();
+        Member follower = both[1].get(5, TimeUnit.SECONDS).orElseThrow();
+        assertThat(follower).isEqualTo(leader).isNotSameAs(leader);
+        verify(delegate, times(1)).selectMemberById(1);
+        assertThat(calls("leader")).isEqualTo(1);
+    }
+
+    @Test
+    void followersGetTheLeadersException() throws Exception {
+        slowLookup(() -> {
+            throw new IllegalStateException("connection refused");
+        });
+        SingleFlightMemberDao underTest = singleFlight(true, Duration.ofSeconds(5));
+
+        CompletableFuture<Optional<Member>>[] both = leaderAndFollower(underTest);
+        release.countDown();
+
+        for (CompletableFuture<Optional<Member>> call : both) {
+            assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("connection refused");
+        }
+        verify(delegate, times(1)).selectMemberById(1);
+    }
+
+    @Test
+    void followersStopWaitingAfterMaxWait() throws Exception {
+        slowLookup(() -> {});
+        SingleFlightMemberDao underTest = singleFlight(true, Duration.ofMillis(50));
+
+        CompletableFuture<Optional<Member>> leader =
+                CompletableFuture.supplyAsync(() -> underTest.selectMemberById(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> underTest.selectMemberById(1))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(calls("timeout")).isEqualTo(1);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isPresent();
+    }
+
+    @Test
+    void writeDetachesTheCallInFlight() throws Exception {
+        slowLookup(() -> {});
+        SingleFlightMemberDao underTest = singleFlight(true, Duration.ofSeconds(5));
+
+        CompletableFuture<Optional<Member>> leader =
+                CompletableFuture.supplyAsync(() -> underTest.selectMemberById(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        underTest.updateMemberFields(1, new MemberUpdateRequest("New", null, null, null), null);
+        // may have read the old row, a lookup after the write must not join it
+        CompletableFuture<Optional<Member>> after =
+                CompletableFuture.supplyAsync(() -> underTest.selectMemberById(1));
+        release.countDown();
+
+        leader.get(5, TimeUnit.SECONDS);
+        after.get(5, TimeUnit.SECONDS);
+        verify(delegate, times(2)).selectMemberById(1);
+        assertThat(calls("coalesced")).isZero();
+    }
+
+    @Test
+    void disabledPassesThrough() {
+        when(delegate.selectUserByEmail("jo@mail.corp")).thenReturn(Optional.empty());
+        SingleFlightMemberDao underTest = singleFlight(false, Duration.ofSeconds(1));
+
+        assertThat(underTest.selectUserByEmail("jo@mail.corp")).isEmpty();
+        assertThat(meterRegistry.get("member.dao.single.flight.calls")
+                .tag("operation", "selectUserByEmail")
+                .tag("outcome", "leader")
+                .counter().count()).isZero();
+    }
+}
@@ -0,0 +1,84 @@
+package com.backend.security;
+
+import com.backend.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private BoundedPasswordEncoder underTest;
+
+    // encodes by reversing, blocks until released
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        underTest.shutdown();
+    }
+
+    @Test
+    void hashesOnTheEncoderThreads() {
+        release.countDown();
+        underTest = new BoundedPasswordEncoder(slowEncoder, 1, 1, Duration.ofSeconds(1), meterRegistry);
+
+        assertThat(underTest.encode("secret")).isEqualTo("terces");
+        assertThat(underTest.matches("secret", "terces")).isTrue();
+        assertThat(meterRegistry.get("password.encoder.hash").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("password.encoder.wait").tag("operation", "matches").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refusesWorkWhenQueueIsFull() throws InterruptedException {
+        underTest = new BoundedPasswordEncoder(slowEncoder, 1, 1, Duration.ofSeconds(2), meterRegistry);
+
+        // one hash running, one queued
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> underTest.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> underTest.encode("b"));
+        while (meterRegistry.get("password.encoder.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> underTest.encode("c"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .extracting(e -> ((ServiceUnavailableException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(2));
+        assertThat(meterRegistry.get("password.encoder.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo("a");
+        assertThat(queued.join()).isEqualTo("b");
+    }
+}
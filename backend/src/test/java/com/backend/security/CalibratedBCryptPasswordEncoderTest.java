@@ -0,0 +1,38 @@
+package com.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    void upgradesHashesAtALowerCost() {
+        CalibratedBCryptPasswordEncoder underTest = new CalibratedBCryptPasswordEncoder(5);
+
+        assertThat(underTest.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        assertThat(underTest.upgradeEncoding(underTest.encode("password"))).isFalse();
+        assertThat(underTest.upgradeEncoding("not a hash")).isFalse();
+    }
+
+    @Test
+    void keepsHashesAtAHigherCost() {
+        // encoded by a node calibrated one cost above, re-encoding would flip it back there
+        CalibratedBCryptPasswordEncoder underTest = new CalibratedBCryptPasswordEncoder(5);
+
+        assertThat(underTest.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password"))).isFalse();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        // nothing meets a zero target, the minimum is kept
+        assertThat(CalibratedBCryptPasswordEncoder.calibrate(Duration.ZERO, 4, 6, 2).getStrength())
+                .isEqualTo(4);
+        // everything meets a generous target up to the maximum
+        assertThat(CalibratedBCryptPasswordEncoder.calibrate(Duration.ofMinutes(1), 4, 6, 2).getStrength())
+                .isEqualTo(6);
+    }
+}
@@ -21,7 +21,7 @@ import {deleteMember} from "../../services/client.js";
 import {errorNotification, successNotification} from "../../services/notification.js";
 import UpdateMemberDrawer from "./UpdateMemberDrawer.jsx";
 
-export default function CardWithImage({id, name, email, age, gender, imageNumber, fetchMembers }) {
+export default function CardWithImage({id, name, email, age, gender, version, imageNumber, fetchMembers }) {
     const randomGender = gender === "MALE" ? "men" : "women";
 
     const { isOpen, onOpen, onClose } = useDisclosure()
@@ -74,6 +74,7 @@ export default function CardWithImage({id, name, email, age, gender, imageNumber
                         <UpdateMemberDrawer
                             initialValues={{ name, email, age }}
                             memberId={id}
+                            version={version}
                             fetchMembers={fetchMembers}
                         />
                     </Stack>
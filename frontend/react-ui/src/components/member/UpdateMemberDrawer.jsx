@@ -13,7 +13,7 @@ import UpdateMemberForm from "./UpdateMemberForm.jsx";
 
 const CloseIcon = () => "x";
 
-const UpdateMemberDrawer = ({ fetchMembers, initialValues, memberId }) => {
+const UpdateMemberDrawer = ({ fetchMembers, initialValues, memberId, version }) => {
     const { isOpen, onOpen, onClose } = useDisclosure()
     return <>
         <Button
@@ -39,6 +39,7 @@ const UpdateMemberDrawer = ({ fetchMembers, initialValues, memberId }) => {
                         fetchMembers={fetchMembers}
                         initialValues={initialValues}
                         memberId={memberId}
+                        version={version}
                     />
                 </DrawerBody>
 
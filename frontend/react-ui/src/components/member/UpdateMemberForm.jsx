@@ -20,7 +20,7 @@ const MyTextInput = ({label, ...props}) => {
     );
 };
 
-const UpdateMemberForm = ({ fetchMembers, initialValues, memberId }) => {
+const UpdateMemberForm = ({ fetchMembers, initialValues, memberId, version }) => {
     return (
         <>
             <Formik
@@ -39,7 +39,7 @@ const UpdateMemberForm = ({ fetchMembers, initialValues, memberId }) => {
                 })}
                 onSubmit={(updatedMember, {setSubmitting}) => {
                     setSubmitting(true);
-                    updateMember(memberId, updatedMember)
+                    updateMember(memberId, version, updatedMember)
                         .then(res => {
                             console.log(res);
                             successNotification(
@@ -53,6 +53,10 @@ const UpdateMemberForm = ({ fetchMembers, initialValues, memberId }) => {
                             err.code,
                             err.response.data.message
                         )
+                        // changed by someone else, reload to edit the current version
+                        if (err.response.status === 412) {
+                            fetchMembers();
+                        }
                     }).finally(() => {
                         setSubmitting(false);
                     })
@@ -7,11 +7,35 @@ const getAuthConfig = () => ({
     }
 })
 
+// last response per url, replayed when the server answers 304 Not Modified
+const cachedResponses = new Map();
+
+// GET with If-None-Match, an unchanged resource comes back without a body
+const getWithETag = async (url) => {
+    const cached = cachedResponses.get(url);
+    const config = getAuthConfig();
+    if (cached) {
+        config.headers['If-None-Match'] = cached.headers.etag;
+    }
+    const res = await axios.get(url, {
+        ...config,
+        validateStatus: status => (status >= 200 && status < 300) || status === 304
+    });
+    if (res.status === 304 && cached) {
+        return cached;
+    }
+    if (res.headers.etag) {
+        cachedResponses.set(url, res);
+    } else {
+        cachedResponses.delete(url);
+    }
+    return res;
+}
+
 export const getMembers = async () => {
     try{
-        return await axios.get(
-            `${import.meta.env.VITE_API_BASE_URL}/api/v1/members`,
-            getAuthConfig())
+        return await getWithETag(
+            `${import.meta.env.VITE_API_BASE_URL}/api/v1/members`)
     } catch(err){
         throw err;
     }
@@ -28,12 +52,15 @@ export const saveMember =  async (member) => {
     }
 }
 
-export const updateMember = async (id, update) => {
+// version is the member's ETag as last read, a concurrent edit answers 412
+export const updateMember = async (id, version, update) => {
+    const config = getAuthConfig();
+    config.headers['If-Match'] = `"${version}"`;
     try {
         return await axios.put(
             `${import.meta.env.VITE_API_BASE_URL}/api/v1/members/${id}`,
             update,
-            getAuthConfig()
+            config
         )
     } catch (e) {
         throw e;